@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.Deployer.CommandResponse;
+import com.flowlogix.maven.plugins.Deployer.CommandResult;
+import com.flowlogix.maven.plugins.Deployer.ServerLocations;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Admin command round trip against a local stub server, and decoding of the server locations response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeployerBenchmark {
+    static final String LOCATIONS_RESPONSE = """
+            {"message":"","command":"__locations AdminCommand","exit_code":"SUCCESS",\
+            "properties":{"Restart-Required":"false","Instance-Root":"/opt/payara/glassfish/domains/domain1",\
+            "Base-Root":"/opt/payara/glassfish","Uptime":"123456","Domain-Root":"/opt/payara/glassfish/domains",\
+            "Pid":"4242","Config-Dir":"/opt/payara/glassfish/domains/domain1/config"},"extraProperties":{}}""";
+    private static final Map<String, String> DEPLOY_PARAMETERS = Map.of(
+            "name", "my-application",
+            "availabilityenabled", "true",
+            "keepstate", "true",
+            "force", "true",
+            "properties", "warlibs=true:cacheTTL=0",
+            "DEFAULT", "/home/user/projects/my application/target/my-application");
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private Deployer deployer;
+    private final byte[] locationsEvent = ("event: command\ndata: " + LOCATIONS_RESPONSE + "\n\n")
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Setup
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        byte[] body = LOCATIONS_RESPONSE.getBytes(StandardCharsets.UTF_8);
+        server.createContext("/command/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (var output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+        var mojo = new DevModeMojo();
+        mojo.serverAminURL = "http://%s:%d".formatted(server.getAddress().getHostString(),
+                server.getAddress().getPort());
+        deployer = new Deployer(mojo);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public CommandResult sendCommand() {
+        return deployer.sendCommand("deploy", DEPLOY_PARAMETERS, (command, response) -> { });
+    }
+
+    @Benchmark
+    public ServerLocations serverLocationsResponse() throws IOException {
+        CommandResponse response = AdminResponseDecoder.decode(200, new ByteArrayInputStream(locationsEvent));
+        var serverLocations = new AtomicReference<ServerLocations>();
+        deployer.serverLocationsResponse("__locations", response, serverLocations);
+        return serverLocations.get();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Watcher event intake (content hash check, pending set, debounce scheduling)
+ * fed by a synthetic event source instead of the file system watch service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WatcherBenchmark {
+    private static final int FILES = 200;
+    private static final int FILE_SIZE = 4096;
+
+    @Param({"1", "20"})
+    int batchSize;
+
+    private Path root;
+    private List<Path> files;
+    private ScheduledExecutorService executorService;
+    private Consumer<Set<Path>> intake;
+    private AdaptiveDebounce debounce;
+    private int nextFile;
+    private long now;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("watcher-benchmark");
+        byte[] content = new byte[FILE_SIZE];
+        files = IntStream.range(0, FILES).mapToObj(file -> root.resolve("page%d.xhtml".formatted(file)))
+                .peek(file -> write(file, content)).toList();
+        executorService = Executors.newSingleThreadScheduledExecutor();
+        intake = new Watcher(new DevModeMojo()).intake(changes -> { },
+                new Watcher.Config(50, 500, Watcher.Backend.NATIVE, 1000), executorService);
+        debounce = new AdaptiveDebounce(50, 500);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executorService.shutdownNow();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Set<Path> intake() {
+        Set<Path> batch = new HashSet<>();
+        for (int file = 0; file < batchSize; ++file) {
+            batch.add(files.get(nextFile++ % FILES));
+        }
+        intake.accept(batch);
+        return batch;
+    }
+
+    @Benchmark
+    public long debounce() {
+        long delay = 0;
+        for (int event = 0; event < batchSize; ++event) {
+            now += 2;
+            delay = debounce.onEvent(now);
+        }
+        now += delay;
+        debounce.fired(now);
+        now += 1000;
+        return delay;
+    }
+
+    private static void write(Path file, byte[] content) {
+        try {
+            Files.write(file, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.plugins.livereload;
+
+import com.flowlogix.plugins.common.ReloadStatus;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Reload broadcast and session close with many connected browser sessions.
+ * Sessions are spread over several applications and accept every message immediately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReloadEndpointBenchmark {
+    private static final int APPLICATIONS = 10;
+    private static final String APPLICATION = "application0";
+
+    @Param({"1000", "10000"})
+    int sessionCount;
+
+    private final ReloadEndpoint endpoint = new ReloadEndpoint();
+    private List<Session> sessions;
+    private int nextSession;
+
+    @Setup
+    public void setup() {
+        sessions = IntStream.range(0, sessionCount).mapToObj(ReloadEndpointBenchmark::session).toList();
+        for (int index = 0; index < sessionCount; ++index) {
+            endpoint.onMessage(application(index), sessions.get(index));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessions.forEach(endpoint::onClose);
+    }
+
+    @Benchmark
+    public int broadcastReload() {
+        return ReloadEndpoint.broadcastReload(APPLICATION, ReloadStatus.RELOAD);
+    }
+
+    /**
+     * Closes a session and opens it again, to keep the number of sessions constant.
+     */
+    @Benchmark
+    public void closeSession() {
+        int index = nextSession++ % sessionCount;
+        endpoint.onClose(sessions.get(index));
+        endpoint.onMessage(application(index), sessions.get(index));
+    }
+
+    private static String application(int index) {
+        return "application" + index % APPLICATIONS;
+    }
+
+    private static Session session(int id) {
+        String sessionId = String.valueOf(id);
+        var asyncRemote = (RemoteEndpoint.Async) Proxy.newProxyInstance(Session.class.getClassLoader(),
+                new Class<?>[] {RemoteEndpoint.Async.class}, (proxy, method, args) -> {
+                    if (args != null && args.length == 2 && args[1] instanceof SendHandler handler) {
+                        handler.onResult(new SendResult());
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] {Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getAsyncRemote" -> asyncRemote;
+                    case "getId" -> sessionId;
+                    case "isOpen" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "Session " + sessionId;
+                    default -> null;
+                });
+    }
+}
@@ -24,7 +24,13 @@ public enum ReloadStatus {
     /** Indicates that a compilation or deployment error has occurred and the browser should not refresh the page. */
     ERROR,
     /** Indicates that test failures have occurred and the browser should not refresh the page. */
-    TEST_FAILURE;
+    TEST_FAILURE,
+    /**
+     * Indicates that only static assets (i.e. CSS, JavaScript, images) changed, and the browser should replace
+     * those assets instead of refreshing the page. The message is followed by the asset paths, one per line,
+     * relative to the application's context root.
+     */
+    RELOAD_ASSETS;
 
     public String getDescription() {
         return name().toLowerCase().replace("_", "-");
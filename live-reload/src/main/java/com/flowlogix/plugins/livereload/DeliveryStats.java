@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.plugins.livereload;
+
+/**
+ * Reload messages sent to browser sessions since the helper application started.
+ *
+ * @param broadcasts reload requests
+ * @param dispatched messages handed to sessions
+ * @param delivered messages the sessions accepted
+ * @param failed messages that failed or timed out, their sessions were evicted
+ * @param idle sessions evicted because they did not answer heartbeat pings
+ * @param sessions currently connected sessions
+ */
+public record DeliveryStats(long broadcasts, long dispatched, long delivered, long failed, long idle,
+                            long sessions) {
+}
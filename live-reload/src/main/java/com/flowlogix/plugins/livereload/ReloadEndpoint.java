@@ -21,51 +21,221 @@ package com.flowlogix.plugins.livereload;
 import com.flowlogix.plugins.common.ReloadStatus;
 import jakarta.websocket.OnClose;
 import jakarta.websocket.OnMessage;
+import jakarta.websocket.PongMessage;
+import jakarta.websocket.SendResult;
 import jakarta.websocket.Session;
 import jakarta.websocket.server.ServerEndpoint;
 import lombok.SneakyThrows;
 import lombok.extern.java.Log;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Log
 @ServerEndpoint(value = "/livereload")
 public class ReloadEndpoint {
+    /**
+     * Sessions that do not accept a message within this time are evicted,
+     * i.e. stalled tabs or sleeping laptops.
+     */
+    static final Duration SEND_TIMEOUT = Duration.ofSeconds(5);
+    /**
+     * Sessions that did not answer a heartbeat ping for this long are evicted,
+     * i.e. browsers that disappeared without closing the connection.
+     */
+    static final Duration IDLE_TIMEOUT = SessionHeartbeat.INTERVAL.multipliedBy(3);
+    private static final ByteBuffer PING = ByteBuffer.allocate(0);
+    /**
+     * Time source of {@link #LAST_SEEN} and the heartbeat, replaced by tests.
+     */
+    static volatile Clock clock = Clock.systemUTC();
     private static final Map<String, Set<Session>> SESSIONS = new ConcurrentHashMap<>();
+    /**
+     * Reverse index of {@link #SESSIONS}, applications each session subscribed to, with the view ID
+     * the session shows of each application, or {@link #NO_VIEW} if it subscribed without one.
+     */
+    private static final Map<Session, Map<String, String>> SUBSCRIPTIONS = new ConcurrentHashMap<>();
+    private static final String NO_VIEW = "";
+    /**
+     * When each session subscribed or last answered a ping, in milliseconds since the epoch.
+     */
+    private static final Map<Session, Long> LAST_SEEN = new ConcurrentHashMap<>();
+    private static final AtomicLong BROADCASTS = new AtomicLong();
+    private static final AtomicLong DISPATCHED = new AtomicLong();
+    private static final AtomicLong DELIVERED = new AtomicLong();
+    private static final AtomicLong FAILED = new AtomicLong();
+    private static final AtomicLong IDLE = new AtomicLong();
 
+    /**
+     * Subscribes the session to reloads of an application.
+     *
+     * @param message application name, optionally followed by the view ID (i.e. /index.xhtml)
+     *                the session shows on the next line
+     */
     @OnMessage
     public void onMessage(String message, Session session) {
-        SESSIONS.computeIfAbsent(message, var -> new CopyOnWriteArraySet<>()).add(session);
+        String[] subscription = message.split("\n", 2);
+        String application = subscription[0].strip();
+        session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT.toMillis());
+        // both indexes are updated while the session's subscriptions are locked, as in remove()
+        SUBSCRIPTIONS.compute(session, (var, applications) -> {
+            Map<String, String> subscribed = applications != null ? applications : new ConcurrentHashMap<>();
+            subscribed.put(application, subscription.length > 1 ? subscription[1].strip() : NO_VIEW);
+            LAST_SEEN.put(session, clock.millis());
+            // adding within compute() can not race with the removal of the last session of the application
+            SESSIONS.compute(application, (name, sessions) -> {
+                Set<Session> subscribers = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+                subscribers.add(session);
+                return subscribers;
+            });
+            return subscribed;
+        });
+        // closed, or evicted and closed, before it was subscribed
+        if (!session.isOpen()) {
+            remove(session);
+        }
+    }
+
+    @OnMessage
+    public void onPong(PongMessage pong, Session session) {
+        LAST_SEEN.computeIfPresent(session, (var, lastSeen) -> clock.millis());
     }
 
     @OnClose
     public void onClose(Session session) {
-        SESSIONS.forEach((var, value) -> value.remove(session));
-        SESSIONS.entrySet().stream()
-                .filter(entry -> entry.getValue().isEmpty())
-                .map(Map.Entry::getKey) .distinct()
-                .forEach(SESSIONS::remove);
+        remove(session);
     }
 
-    static void broadcastReload(String application, ReloadStatus status) throws IOException {
+    /**
+     * Sends the status to all sessions of the application, without waiting for delivery.
+     *
+     * @return number of sessions the status was sent to
+     */
+    static int broadcastReload(String application, ReloadStatus status) {
+        return broadcastReload(application, status, List.of());
+    }
+
+    /**
+     * @param assets changed asset paths, sent on separate lines after the status
+     */
+    static int broadcastReload(String application, ReloadStatus status, List<String> assets) {
+        return broadcastReload(application, status, assets, List.of());
+    }
+
+    /**
+     * @param assets changed asset paths, sent on separate lines after the status
+     * @param views affected view IDs, when not empty only sessions showing one of them,
+     *              or that did not subscribe with a view, are sent the status
+     */
+    static int broadcastReload(String application, ReloadStatus status, List<String> assets,
+                               Collection<String> views) {
         log.fine("broadcasting %s endpoint %s".formatted(status.getDescription(), application));
+        BROADCASTS.incrementAndGet();
+        String message = Stream.concat(Stream.of(status.getDescription()), assets.stream())
+                .collect(Collectors.joining("\n"));
+        int dispatched = 0;
         for (Session session : sessions(application)) {
+            String view = Optional.ofNullable(SUBSCRIPTIONS.get(session))
+                    .map(applications -> applications.get(application)).orElse(NO_VIEW);
+            if (!views.isEmpty() && !NO_VIEW.equals(view) && !views.contains(view)) {
+                continue;
+            }
             log.fine("Sending %s to Web LiveReload application %s session %s".formatted(
                     status.getDescription(), application, session.getId()));
-            session.getBasicRemote().sendText(status.getDescription());
+            try {
+                session.getAsyncRemote().sendText(message, result -> onSent(session, result));
+                ++dispatched;
+            } catch (RuntimeException e) {
+                evict(session, e);
+            }
         }
+        DISPATCHED.addAndGet(dispatched);
+        return dispatched;
     }
 
     static Set<Session> sessions(String application) {
         return Optional.ofNullable(SESSIONS.get(application)).orElse(Set.of());
     }
 
+    static DeliveryStats stats() {
+        return new DeliveryStats(BROADCASTS.get(), DISPATCHED.get(), DELIVERED.get(), FAILED.get(),
+                IDLE.get(), SUBSCRIPTIONS.size());
+    }
+
+    static Map<String, Integer> sessionCounts() {
+        return SESSIONS.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                entry -> entry.getValue().size()));
+    }
+
+    /**
+     * Evicts sessions that are closed or did not answer pings for {@link #IDLE_TIMEOUT}, and pings the rest.
+     */
+    static void heartbeat() {
+        long now = clock.millis();
+        for (Session session : SUBSCRIPTIONS.keySet()) {
+            long lastSeen = LAST_SEEN.getOrDefault(session, now);
+            if (!session.isOpen() || now - lastSeen > IDLE_TIMEOUT.toMillis()) {
+                IDLE.incrementAndGet();
+                log.fine("Evicting idle LiveReload session %s".formatted(session.getId()));
+                remove(session);
+                close(session);
+                continue;
+            }
+            try {
+                session.getAsyncRemote().sendPing(PING.duplicate());
+            } catch (IOException | RuntimeException e) {
+                evict(session, e);
+            }
+        }
+    }
+
     static void shutdown() {
-        SESSIONS.values().stream().flatMap(Set::stream).distinct().forEach(ReloadEndpoint::shutdown);
+        SUBSCRIPTIONS.keySet().forEach(ReloadEndpoint::shutdown);
+    }
+
+    private static void onSent(Session session, SendResult result) {
+        if (result.isOK()) {
+            DELIVERED.incrementAndGet();
+        } else {
+            evict(session, result.getException());
+        }
+    }
+
+    private static void evict(Session session, Throwable cause) {
+        FAILED.incrementAndGet();
+        log.log(Level.FINE, "Evicting LiveReload session %s".formatted(session.getId()), cause);
+        remove(session);
+        close(session);
+    }
+
+    private static void close(Session session) {
+        try {
+            session.close();
+        } catch (IOException | RuntimeException e) {
+            log.log(Level.FINE, "Cannot close LiveReload session", e);
+        }
+    }
+
+    private static void remove(Session session) {
+        SUBSCRIPTIONS.computeIfPresent(session, (var, applications) -> {
+            LAST_SEEN.remove(session);
+            applications.keySet().forEach(application -> SESSIONS.computeIfPresent(application, (name, sessions) -> {
+                sessions.remove(session);
+                return sessions.isEmpty() ? null : sessions;
+            }));
+            return null;
+        });
     }
 
     @SneakyThrows(IOException.class)
@@ -24,20 +24,40 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Path("/")
 public class ReloadTrigger {
     @POST
     @Path("/reload/{application}")
     public Response reload(@PathParam("application") String application,
-                           @QueryParam("status") @DefaultValue("reload") String status) throws IOException {
-        ReloadEndpoint.broadcastReload(application, ReloadStatus.fromDescription(status));
+                           @QueryParam("status") @DefaultValue("reload") String status,
+                           @QueryParam("asset") List<String> assets,
+                           @QueryParam("view") List<String> views) {
+        ReloadEndpoint.broadcastReload(application, ReloadStatus.fromDescription(status), assets, Set.copyOf(views));
         return Response.ok().build();
     }
 
+    @GET
+    @Path("/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public DeliveryStats stats() {
+        return ReloadEndpoint.stats();
+    }
+
+    @GET
+    @Path("/sessions")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Integer> sessions() {
+        return ReloadEndpoint.sessionCounts();
+    }
+
     @GET
     @Path("/ping")
     public Response ping() {
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.plugins.livereload;
+
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Shutdown;
+import jakarta.enterprise.event.Startup;
+import lombok.extern.java.Log;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pings the LiveReload sessions periodically, so browsers that disappeared without closing
+ * the connection are evicted, instead of being sent every later reload.
+ */
+@Log
+@ApplicationScoped
+public class SessionHeartbeat {
+    static final Duration INTERVAL = Duration.ofSeconds(30);
+
+    @Resource
+    ManagedScheduledExecutorService executor;
+    private ScheduledFuture<?> heartbeat;
+
+    void startup(@Observes Startup startup) {
+        log.fine("Starting LiveReload session heartbeat");
+        heartbeat = executor.scheduleAtFixedRate(ReloadEndpoint::heartbeat,
+                INTERVAL.toMillis(), INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void shutdown(@Observes Shutdown shutdown) {
+        Optional.ofNullable(heartbeat).ifPresent(future -> future.cancel(false));
+    }
+}
@@ -27,15 +27,26 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import jakarta.websocket.PongMessage;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
 import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.MockedStatic;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Set;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -56,6 +67,8 @@ class LiveReloadTest {
         try (MockedStatic<ReloadEndpoint> reloadMock = mockStatic(ReloadEndpoint.class)) {
             reloadMock.when(() -> ReloadEndpoint.sessions(any())).thenReturn(Set.of());
             reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any())).thenCallRealMethod();
+            reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any(), any())).thenCallRealMethod();
+            reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any(), any(), any())).thenCallRealMethod();
 
             ReloadEndpoint.broadcastReload("myapp", status);
             verifyNoMoreInteractions(mockSessions);
@@ -69,11 +82,13 @@ class LiveReloadTest {
         try (MockedStatic<ReloadEndpoint> reloadMock = mockStatic(ReloadEndpoint.class)) {
             reloadMock.when(() -> ReloadEndpoint.sessions(any())).thenReturn(Set.of(session));
             reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any())).thenCallRealMethod();
+            reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any(), any())).thenCallRealMethod();
+            reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any(), any(), any())).thenCallRealMethod();
 
-            ReloadEndpoint.broadcastReload("myapp", status);
+            assertThat(ReloadEndpoint.broadcastReload("myapp", status)).isOne();
             verify(session).getId();
-            verify(session.getBasicRemote()).sendText(status.getDescription());
-            verify(session, times(2)).getBasicRemote();
+            verify(session.getAsyncRemote()).sendText(eq(status.getDescription()), any(SendHandler.class));
+            verify(session, times(2)).getAsyncRemote();
             verifyNoMoreInteractions(mockSessions, session);
         }
     }
@@ -84,9 +99,136 @@ class LiveReloadTest {
         try (MockedStatic<ReloadEndpoint> reloadMock = mockStatic(ReloadEndpoint.class)) {
             reloadMock.when(() -> ReloadEndpoint.sessions(any())).thenReturn(Set.of(session));
             reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any())).thenCallRealMethod();
+            reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any(), any())).thenCallRealMethod();
+            reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any(), any(), any())).thenCallRealMethod();
 
             ReloadEndpoint.broadcastReload("myapp", ReloadStatus.RELOAD);
-            verify(session.getBasicRemote()).sendText(ReloadStatus.RELOAD.getDescription());
+            verify(session.getAsyncRemote()).sendText(eq(ReloadStatus.RELOAD.getDescription()), any(SendHandler.class));
+        }
+    }
+
+    @Test
+    void broadcastAssetsSendsPathsOnSeparateLines() {
+        try (MockedStatic<ReloadEndpoint> reloadMock = mockStatic(ReloadEndpoint.class)) {
+            reloadMock.when(() -> ReloadEndpoint.sessions(any())).thenReturn(Set.of(session));
+            reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any(), any())).thenCallRealMethod();
+            reloadMock.when(() -> ReloadEndpoint.broadcastReload(any(), any(), any(), any())).thenCallRealMethod();
+
+            ReloadEndpoint.broadcastReload("myapp", ReloadStatus.RELOAD_ASSETS, List.of("css/app.css", "img/logo.svg"));
+            verify(session.getAsyncRemote()).sendText(eq("reload-assets\ncss/app.css\nimg/logo.svg"),
+                    any(SendHandler.class));
+        }
+    }
+
+    @Test
+    void onlySessionsShowingAffectedViewsAreReloaded(@Mock(answer = Answers.RETURNS_DEEP_STUBS) Session other,
+                                                     @Mock(answer = Answers.RETURNS_DEEP_STUBS) Session unknown) {
+        List.of(session, other, unknown).forEach(open -> when(open.isOpen()).thenReturn(true));
+        var endpoint = new ReloadEndpoint();
+        endpoint.onMessage("views\n/index.xhtml", session);
+        endpoint.onMessage("views\n/other.xhtml", other);
+        endpoint.onMessage("views", unknown);
+        assertThat(ReloadEndpoint.sessions("views")).containsExactlyInAnyOrder(session, other, unknown);
+
+        assertThat(ReloadEndpoint.broadcastReload("views", ReloadStatus.RELOAD, List.of(), Set.of("/index.xhtml")))
+                .isEqualTo(2);
+        verify(session.getAsyncRemote()).sendText(eq("reload"), any(SendHandler.class));
+        verify(unknown.getAsyncRemote()).sendText(eq("reload"), any(SendHandler.class));
+        verify(other.getAsyncRemote(), never()).sendText(any(), any(SendHandler.class));
+
+        assertThat(ReloadEndpoint.broadcastReload("views", ReloadStatus.RELOAD)).isEqualTo(3);
+        List.of(session, other, unknown).forEach(endpoint::onClose);
+    }
+
+    @Test
+    void viewsArePerApplication() {
+        when(session.isOpen()).thenReturn(true);
+        var endpoint = new ReloadEndpoint();
+        endpoint.onMessage("first\n/index.xhtml", session);
+        endpoint.onMessage("second", session);
+
+        assertThat(ReloadEndpoint.broadcastReload("first", ReloadStatus.RELOAD, List.of(), Set.of("/other.xhtml")))
+                .isZero();
+        assertThat(ReloadEndpoint.broadcastReload("second", ReloadStatus.RELOAD, List.of(), Set.of("/other.xhtml")))
+                .isOne();
+        assertThat(ReloadEndpoint.broadcastReload("first", ReloadStatus.RELOAD, List.of(), Set.of("/index.xhtml")))
+                .isOne();
+        endpoint.onClose(session);
+    }
+
+    @Test
+    void failedSessionIsEvicted() throws IOException {
+        when(session.isOpen()).thenReturn(true);
+        var endpoint = new ReloadEndpoint();
+        endpoint.onMessage("evicted", session);
+        verify(session.getAsyncRemote()).setSendTimeout(ReloadEndpoint.SEND_TIMEOUT.toMillis());
+        long failed = ReloadEndpoint.stats().failed();
+        long delivered = ReloadEndpoint.stats().delivered();
+
+        assertThat(ReloadEndpoint.broadcastReload("evicted", ReloadStatus.RELOAD)).isOne();
+        var handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(session.getAsyncRemote()).sendText(eq(ReloadStatus.RELOAD.getDescription()), handler.capture());
+        handler.getValue().onResult(new SendResult());
+        assertThat(ReloadEndpoint.stats().delivered()).isEqualTo(delivered + 1);
+        assertThat(ReloadEndpoint.sessions("evicted")).containsExactly(session);
+
+        handler.getValue().onResult(new SendResult(new IOException("timed out")));
+        assertThat(ReloadEndpoint.stats().failed()).isEqualTo(failed + 1);
+        assertThat(ReloadEndpoint.sessions("evicted")).isEmpty();
+        verify(session).close();
+    }
+
+    @Test
+    void closeRemovesAllSubscriptions(@Mock(answer = Answers.RETURNS_DEEP_STUBS) Session other) {
+        when(session.isOpen()).thenReturn(true);
+        when(other.isOpen()).thenReturn(true);
+        var endpoint = new ReloadEndpoint();
+        endpoint.onMessage("first", session);
+        endpoint.onMessage("second", session);
+        endpoint.onMessage("second", other);
+        assertThat(ReloadEndpoint.sessions("second")).containsExactlyInAnyOrder(session, other);
+
+        endpoint.onClose(session);
+        assertThat(ReloadEndpoint.sessions("first")).isEmpty();
+        assertThat(ReloadEndpoint.sessions("second")).containsExactly(other);
+        endpoint.onClose(other);
+        assertThat(ReloadEndpoint.sessions("second")).isEmpty();
+    }
+
+    @Test
+    void closedSessionIsNotSubscribed() {
+        new ReloadEndpoint().onMessage("closed", session);
+        assertThat(ReloadEndpoint.sessions("closed")).isEmpty();
+        assertThat(ReloadEndpoint.sessionCounts()).doesNotContainKey("closed");
+    }
+
+    @Test
+    void heartbeatEvictsIdleSessions(@Mock(answer = Answers.RETURNS_DEEP_STUBS) Session other) throws IOException {
+        Instant subscribed = Instant.parse("2026-01-01T00:00:00Z");
+        ReloadEndpoint.clock = Clock.fixed(subscribed, ZoneOffset.UTC);
+        try {
+            when(session.isOpen()).thenReturn(true);
+            when(other.isOpen()).thenReturn(true);
+            var endpoint = new ReloadEndpoint();
+            endpoint.onMessage("heartbeat", session);
+            endpoint.onMessage("heartbeat", other);
+            long idle = ReloadEndpoint.stats().idle();
+
+            ReloadEndpoint.heartbeat();
+            verify(session.getAsyncRemote()).sendPing(any());
+            assertThat(ReloadEndpoint.sessionCounts()).containsEntry("heartbeat", 2);
+
+            ReloadEndpoint.clock = Clock.fixed(subscribed.plusSeconds(1), ZoneOffset.UTC);
+            endpoint.onPong(mock(PongMessage.class), other);
+            ReloadEndpoint.clock = Clock.fixed(subscribed.plus(ReloadEndpoint.IDLE_TIMEOUT).plusMillis(500),
+                    ZoneOffset.UTC);
+            ReloadEndpoint.heartbeat();
+            assertThat(ReloadEndpoint.sessions("heartbeat")).containsExactly(other);
+            assertThat(ReloadEndpoint.stats().idle()).isEqualTo(idle + 1);
+            verify(session).close();
+            endpoint.onClose(other);
+        } finally {
+            ReloadEndpoint.clock = Clock.systemUTC();
         }
     }
 
@@ -107,10 +249,10 @@ class LiveReloadTest {
                 when(response.getStatus()).thenReturn(Response.Status.OK.getStatusCode());
 
                 ReloadTrigger trigger = new ReloadTrigger();
-                Response actualResponse = trigger.reload("abc", status.getDescription());
+                Response actualResponse = trigger.reload("abc", status.getDescription(), List.of(), List.of());
 
                 assertThat(actualResponse.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
-                reloadMock.verify(() -> ReloadEndpoint.broadcastReload("abc", status));
+                reloadMock.verify(() -> ReloadEndpoint.broadcastReload("abc", status, List.of(), Set.of()));
             }
         }
     }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+/**
+ * Debounce window that adapts to how file change events arrive.
+ * Learns the gap between events of the same burst (i.e. multi-file saves) and how often bursts
+ * consist of a single event. Fires almost immediately after a lone event, waits a little longer
+ * than the typical gap while events keep arriving, and never waits longer than the maximum latency
+ * after the first event of a burst.
+ */
+class AdaptiveDebounce {
+    static final long MIN_WINDOW = 5;
+    private static final double SMOOTHING = 0.3;
+    private static final double GAP_MULTIPLIER = 2;
+    private static final double LONE_THRESHOLD = 0.5;
+
+    private final long burstHorizon;
+    private final long maxLatency;
+    private double gapEstimate;
+    private double loneBursts = LONE_THRESHOLD;
+    private double loneBurstsBeforeFiring = LONE_THRESHOLD;
+    private boolean continuation;
+    private long burstStart;
+    private long lastEvent = Long.MIN_VALUE / 2;
+    private long lastFired = Long.MIN_VALUE / 2;
+    private int burstEvents;
+    private long window;
+
+    /**
+     * @param initialWindow window used until the event rate is learned, also the time after firing
+     *                      during which new events mean the burst was not over yet
+     * @param maxLatency maximum time between the first event of a burst and firing
+     */
+    AdaptiveDebounce(long initialWindow, long maxLatency) {
+        this.burstHorizon = initialWindow;
+        this.maxLatency = Math.max(maxLatency, MIN_WINDOW);
+        this.gapEstimate = initialWindow / GAP_MULTIPLIER;
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param now current time in milliseconds
+     * @return milliseconds to wait before firing
+     */
+    synchronized long onEvent(long now) {
+        if (burstEvents == 0) {
+            burstStart = now;
+            if (now - lastFired < burstHorizon) {
+                // fired too early, the previous burst was still going on
+                learnGap(now - lastEvent);
+                loneBursts = loneBurstsBeforeFiring;
+                continuation = true;
+            }
+        } else {
+            learnGap(now - lastEvent);
+        }
+        ++burstEvents;
+        lastEvent = now;
+        if (burstEvents == 1 && loneBursts > LONE_THRESHOLD) {
+            window = MIN_WINDOW;
+        } else {
+            window = Math.min(Math.max(Math.round(GAP_MULTIPLIER * gapEstimate), MIN_WINDOW), maxLatency);
+        }
+        return Math.max(0, Math.min(now + window, burstStart + maxLatency) - now);
+    }
+
+    /**
+     * Records that the pending changes were delivered.
+     *
+     * @param now current time in milliseconds
+     */
+    synchronized void fired(long now) {
+        loneBurstsBeforeFiring = loneBursts;
+        loneBursts = SMOOTHING * (burstEvents == 1 && !continuation ? 1 : 0) + (1 - SMOOTHING) * loneBursts;
+        burstEvents = 0;
+        continuation = false;
+        lastFired = now;
+    }
+
+    synchronized String describe() {
+        return "window %d ms (gap estimate %.1f ms, lone bursts %.0f%%, max latency %d ms)"
+                .formatted(window, gapEstimate, loneBursts * 100, maxLatency);
+    }
+
+    private void learnGap(long gap) {
+        gapEstimate = SMOOTHING * gap + (1 - SMOOTHING) * gapEstimate;
+    }
+}
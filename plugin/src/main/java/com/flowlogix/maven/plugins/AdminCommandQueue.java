@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.Deployer.CommandResult;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+import org.jspecify.annotations.Nullable;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs admin commands in order for each application, and concurrently for different applications.
+ * Keeps track of what the plugin last did to each application, and skips commands that would not
+ * change anything, i.e. enabling an application that is already enabled with the same files.
+ * Nothing is known about an application until a command for it succeeds, and after a command fails.
+ */
+@RequiredArgsConstructor
+class AdminCommandQueue {
+    enum AppState {
+        ENABLED, DISABLED, UNDEPLOYED
+    }
+
+    /**
+     * Last known state of an application.
+     *
+     * @param fingerprint fingerprint of the application's files when it was enabled, 0 otherwise
+     */
+    private record Known(AppState state, long fingerprint) { }
+
+    private static final CompletableFuture<CommandResult> NOTHING_PENDING =
+            CompletableFuture.completedFuture(CommandResult.SUCCESS);
+
+    @Delegate
+    private final CommonDevMojo mojo;
+    private final Map<String, Known> known = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CommandResult>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Queues a command after all commands previously submitted for the same application.
+     *
+     * @param application application name
+     * @param target state of the application after the command succeeds
+     * @param fingerprint computes the fingerprint of the application's files when the command runs,
+     *                    null if the files do not matter for the command
+     * @param skipIfUnchanged whether to skip the command if the application is known to be in the target state
+     * @param command sends the command
+     * @return result of the command, {@link CommandResult#SUCCESS} if skipped
+     */
+    CompletableFuture<CommandResult> submit(String application, AppState target, @Nullable LongSupplier fingerprint,
+                                            boolean skipIfUnchanged,
+                                            Supplier<CompletableFuture<CommandResult>> command) {
+        var result = new CompletableFuture<CommandResult>();
+        CompletableFuture<CommandResult> previous = pending.put(application, result);
+        (previous != null ? previous : NOTHING_PENDING)
+                .handle((previousResult, e) -> target)
+                .thenCompose(ignored -> run(application, target, fingerprint, skipIfUnchanged, command))
+                .whenComplete((commandResult, e) -> {
+                    if (e != null) {
+                        result.completeExceptionally(e);
+                    } else {
+                        result.complete(commandResult);
+                    }
+                });
+        return result;
+    }
+
+    private CompletableFuture<CommandResult> run(String application, AppState target,
+                                                 @Nullable LongSupplier fingerprint, boolean skipIfUnchanged,
+                                                 Supplier<CompletableFuture<CommandResult>> command) {
+        var expected = new Known(target, fingerprint != null ? fingerprint.getAsLong() : 0);
+        if (skipIfUnchanged && expected.equals(known.get(application))) {
+            getLog().debug("Application %s is already %s, skipping command".formatted(application, target));
+            return NOTHING_PENDING;
+        }
+        return command.get().whenComplete((result, e) -> {
+            if (result == CommandResult.SUCCESS) {
+                known.put(application, expected);
+            } else {
+                known.remove(application);
+            }
+        });
+    }
+
+    /**
+     * Records the state of an application that is known from elsewhere, i.e. from a previous dev mode session.
+     */
+    void assume(String application, AppState state, long fingerprint) {
+        known.put(application, new Known(state, fingerprint));
+    }
+
+    /**
+     * @return fingerprint of the application's files when it was last enabled, empty if not known to be enabled
+     */
+    OptionalLong enabledFingerprint(String application) {
+        Known state = known.get(application);
+        return state != null && state.state() == AppState.ENABLED ? OptionalLong.of(state.fingerprint())
+                : OptionalLong.empty();
+    }
+
+    /**
+     * Forgets what is known about all applications, i.e. when the server was restarted by someone else.
+     */
+    void reset() {
+        known.clear();
+    }
+}
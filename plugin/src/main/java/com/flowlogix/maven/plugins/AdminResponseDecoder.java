@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.Deployer.ActionReport;
+import com.flowlogix.maven.plugins.Deployer.CommandResponse;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParserFactory;
+import jakarta.json.stream.JsonParsingException;
+import lombok.experimental.UtilityClass;
+import org.jspecify.annotations.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes admin REST command responses into {@link ActionReport action reports} while streaming the body.
+ * Plain JSON responses are parsed directly from the stream. Server-sent event responses
+ * (i.e. commands with progress status) only keep the last {@code data:} line, which holds the final report.
+ * Bodies that are neither are kept as text (up to {@link #MAX_TEXT} characters) for error messages.
+ */
+@UtilityClass
+class AdminResponseDecoder {
+    static final int MAX_TEXT = 8192;
+    private static final String SSE_DATA = "data:";
+    private static final JsonParserFactory PARSERS = Json.createParserFactory(Map.of());
+
+    static CommandResponse decode(HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = response.body()) {
+            return decode(response.statusCode(), body);
+        }
+    }
+
+    static CommandResponse decode(int statusCode, InputStream body) throws IOException {
+        var input = new BufferedInputStream(body);
+        int first = skipWhitespace(input);
+        input.reset();
+        try {
+            if (first == '{') {
+                try (JsonParser parser = PARSERS.createParser(input, StandardCharsets.UTF_8)) {
+                    return response(statusCode, readReport(parser));
+                }
+            }
+            var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            var text = new StringBuilder();
+            String data = null;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith(SSE_DATA)) {
+                    data = line.substring(SSE_DATA.length());
+                } else if (data == null && text.length() < MAX_TEXT) {
+                    text.append(line, 0, Math.min(line.length(), MAX_TEXT - text.length())).append('\n');
+                }
+            }
+            if (data == null) {
+                return new CommandResponse(statusCode, null, text.toString().strip());
+            }
+            try (JsonParser parser = PARSERS.createParser(new StringReader(data))) {
+                return response(statusCode, readReport(parser));
+            }
+        } catch (JsonParsingException e) {
+            return new CommandResponse(statusCode, null, "Invalid response: " + e.getMessage());
+        }
+    }
+
+    private static CommandResponse response(int statusCode, @Nullable ActionReport report) {
+        return new CommandResponse(statusCode, report, report != null ? report.message() : null);
+    }
+
+    private static int skipWhitespace(BufferedInputStream input) throws IOException {
+        int next;
+        do {
+            input.mark(1);
+            next = input.read();
+        } while (next != -1 && Character.isWhitespace(next));
+        return next;
+    }
+
+    private static @Nullable ActionReport readReport(JsonParser parser) {
+        return parser.hasNext() && parser.next() == Event.START_OBJECT ? readReportObject(parser) : null;
+    }
+
+    /**
+     * Reads the fields of an action report object, either at the top level or wrapped in {@code action-report}.
+     */
+    private static ActionReport readReportObject(JsonParser parser) {
+        String message = null;
+        String command = null;
+        String exitCode = null;
+        Map<String, String> properties = Map.of();
+        while (parser.next() == Event.KEY_NAME) {
+            String key = parser.getString();
+            Event value = parser.next();
+            switch (key) {
+                case "action-report" -> {
+                    if (value == Event.START_OBJECT) {
+                        return readReportObject(parser);
+                    }
+                }
+                case "message" -> message = readString(parser, value);
+                case "command" -> command = readString(parser, value);
+                case "exit_code" -> exitCode = readString(parser, value);
+                case "properties" -> properties = readProperties(parser, value);
+                default -> skip(parser, value);
+            }
+        }
+        return new ActionReport(message, command, exitCode, properties);
+    }
+
+    private static Map<String, String> readProperties(JsonParser parser, Event value) {
+        if (value != Event.START_OBJECT) {
+            skip(parser, value);
+            return Map.of();
+        }
+        Map<String, String> properties = new HashMap<>();
+        while (parser.next() == Event.KEY_NAME) {
+            String key = parser.getString();
+            String property = readString(parser, parser.next());
+            if (property != null) {
+                properties.put(key, property);
+            }
+        }
+        return properties;
+    }
+
+    private static @Nullable String readString(JsonParser parser, Event value) {
+        return switch (value) {
+            case VALUE_STRING, VALUE_NUMBER -> parser.getString();
+            case VALUE_TRUE -> Boolean.TRUE.toString();
+            case VALUE_FALSE -> Boolean.FALSE.toString();
+            default -> {
+                skip(parser, value);
+                yield null;
+            }
+        };
+    }
+
+    private static void skip(JsonParser parser, Event value) {
+        if (value == Event.START_OBJECT) {
+            parser.skipObject();
+        } else if (value == Event.START_ARRAY) {
+            parser.skipArray();
+        }
+    }
+}
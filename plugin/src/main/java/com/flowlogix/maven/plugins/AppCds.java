@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+import org.jspecify.annotations.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Application class data sharing (AppCDS) for the domain's JVM.
+ * The classes loaded by the server are archived when it stops, and the archive is mapped on later starts,
+ * which skips most of the class loading and verification during startup.
+ * <p>
+ * The archive is specific to the domain's JDK and the server's modules, changing either selects a new archive.
+ * With JDK 19 and later, the JVM also creates and recreates the archive by itself
+ * ({@code -XX:+AutoCreateSharedArchive}). Options are added to, or removed from the
+ * {@code server-config} JVM options in {@code domain.xml}. Options are only removed if they were added
+ * by this plugin, which are recognized by the archive path, AppCDS options of the user are left alone.
+ */
+@RequiredArgsConstructor
+class AppCds {
+    private static final String DIRECTORY = "appcds";
+    private static final String STATE_FILE = "appcds-domain";
+    private static final int AUTO_CREATE_JDK = 19;
+    private static final int DOMAIN_XML_DEPTH = 6;
+    private static final Pattern CDS_OPTION = Pattern.compile("\\s*<jvm-options>-XX:(SharedArchiveFile|"
+            + "ArchiveClassesAtExit)=[^<]*[/\\\\]" + DIRECTORY + "[/\\\\]server-\\p{XDigit}{8}\\.jsa</jvm-options>");
+    private static final Pattern AUTO_CREATE_OPTION = Pattern.compile(
+            "\\s*<jvm-options>-XX:\\+AutoCreateSharedArchive</jvm-options>");
+    private static final Pattern JAVA_HOME = Pattern.compile("\\sjava-home=\"([^\"]*)\"");
+    private static final Pattern AS_JAVA = Pattern.compile("^\\s*(?:set\\s+)?AS_JAVA\\s*=\\s*\"?([^\"\\r\\n]*)\"?",
+            Pattern.MULTILINE);
+    private static final Pattern JAVA_VERSION = Pattern.compile("^JAVA_VERSION=\"(?:1\\.)?(\\d+)", Pattern.MULTILINE);
+    private static final Pattern JVM_OPTIONS_INDENT = Pattern.compile("\\n([ \\t]*)<jvm-options>");
+
+    @Delegate
+    private final CommonDevMojo mojo;
+
+    /**
+     * Adds or removes the AppCDS options of the domain before it starts.
+     * When disabled, only a domain previously configured by this plugin is changed.
+     */
+    void configure(boolean enabled) {
+        configure(enabled, mojo.serverExtraction::distributions, mojo.domainStart.arguments());
+    }
+
+    /**
+     * Configures the domain without accessing the project.
+     *
+     * @param distributions resolves the extracted distributions, only when enabled
+     * @param startDomainArguments arguments of the {@code start-domain} execution
+     */
+    void configure(boolean enabled, Supplier<@Nullable List<ServerExtraction.Distribution>> distributions,
+                   List<String> startDomainArguments) {
+        Path stateFile = getStateDir().resolve(STATE_FILE);
+        Path domainXml = enabled ? domainXml(distributions.get(), startDomainArguments)
+                : configuredDomainXml(stateFile);
+        if (domainXml == null) {
+            if (enabled) {
+                getLog().warn("Cannot find domain.xml, AppCDS not configured");
+            }
+            return;
+        }
+        try {
+            String content = Files.readString(domainXml, StandardCharsets.UTF_8);
+            List<String> options = enabled ? options(domainXml, content) : List.of();
+            String configured = configure(content, options);
+            if (configured == null) {
+                getLog().warn("Cannot find server-config java-config in %s, AppCDS not configured".formatted(domainXml));
+                return;
+            } else if (!configured.equals(content)) {
+                Files.writeString(domainXml, configured, StandardCharsets.UTF_8);
+                getLog().debug("AppCDS options of %s: %s".formatted(domainXml, options));
+            }
+            if (options.isEmpty()) {
+                Files.deleteIfExists(stateFile);
+            } else {
+                Files.createDirectories(getStateDir());
+                Files.writeString(stateFile, domainXml.toString(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            getLog().warn("Cannot configure AppCDS in " + domainXml, e);
+        }
+    }
+
+    private List<String> options(Path domainXml, String content) throws IOException {
+        Path installRoot = domainXml.getParent().getParent().getParent().getParent();
+        Path javaHome = javaHome(content, installRoot, System.getenv());
+        OptionalInt version = javaHome == null ? OptionalInt.empty() : featureVersion(javaHome);
+        if (version.isEmpty()) {
+            getLog().warn("Cannot determine the JDK of %s, AppCDS not configured".formatted(domainXml));
+            return List.of();
+        }
+        return options(archive(domainXml, javaHome), version.getAsInt());
+    }
+
+    private @Nullable Path configuredDomainXml(Path stateFile) {
+        try {
+            if (Files.isRegularFile(stateFile)) {
+                Path domainXml = Path.of(Files.readString(stateFile, StandardCharsets.UTF_8).strip());
+                if (Files.isRegularFile(domainXml)) {
+                    return domainXml;
+                }
+                Files.delete(stateFile);
+            }
+        } catch (IOException e) {
+            getLog().debug("Cannot read " + stateFile, e);
+        }
+        return null;
+    }
+
+    /**
+     * JDK of the domain, the {@code java-home} of the server-config, otherwise the one asadmin uses,
+     * {@code AS_JAVA} of the server or the environment, or {@code JAVA_HOME}.
+     *
+     * @return JDK directory, or null if unknown
+     */
+    static @Nullable Path javaHome(String domainXml, Path installRoot, Map<String, String> environment) {
+        int config = domainXml.indexOf("<config name=\"server-config\"");
+        int javaConfig = config < 0 ? -1 : domainXml.indexOf("<java-config", config);
+        if (javaConfig >= 0) {
+            Matcher javaHome = JAVA_HOME.matcher(domainXml.substring(javaConfig, domainXml.indexOf('>', javaConfig)));
+            if (javaHome.find() && !javaHome.group(1).isBlank() && !javaHome.group(1).contains("${")) {
+                return Path.of(javaHome.group(1));
+            }
+        }
+        for (String asenv : List.of("asenv.conf", "asenv.bat")) {
+            Path file = installRoot.resolve("config").resolve(asenv);
+            try {
+                Matcher asJava = Files.isRegularFile(file) ? AS_JAVA.matcher(Files.readString(file)) : null;
+                if (asJava != null && asJava.find() && !asJava.group(1).isBlank()) {
+                    return Path.of(asJava.group(1).strip());
+                }
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return Stream.of("AS_JAVA", "JAVA_HOME").map(environment::get).filter(home -> home != null && !home.isBlank())
+                .map(Path::of).findFirst().orElse(null);
+    }
+
+    /**
+     * @return feature version from the {@code release} file of the JDK, or empty if unknown
+     */
+    static OptionalInt featureVersion(Path javaHome) {
+        try {
+            Matcher version = JAVA_VERSION.matcher(Files.readString(javaHome.resolve("release")));
+            return version.find() ? OptionalInt.of(Integer.parseInt(version.group(1))) : OptionalInt.empty();
+        } catch (IOException e) {
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * @return JVM options which create the archive when the server stops, or use it if it exists
+     */
+    static List<String> options(Path archive, int jdkFeatureVersion) {
+        if (jdkFeatureVersion >= AUTO_CREATE_JDK) {
+            return List.of("-XX:+AutoCreateSharedArchive", "-XX:SharedArchiveFile=" + archive);
+        }
+        return List.of((Files.isRegularFile(archive) ? "-XX:SharedArchiveFile=" : "-XX:ArchiveClassesAtExit=") + archive);
+    }
+
+    /**
+     * Replaces the AppCDS options added by this plugin to the {@code server-config} configuration.
+     *
+     * @return updated domain.xml, or null if it has no server-config java-config element
+     */
+    static @Nullable String configure(String domainXml, List<String> options) {
+        int config = domainXml.indexOf("<config name=\"server-config\"");
+        int javaConfig = config < 0 ? -1 : domainXml.indexOf("<java-config", config);
+        int javaConfigEnd = javaConfig < 0 ? -1 : domainXml.indexOf("</java-config>", javaConfig);
+        if (javaConfigEnd < 0) {
+            return null;
+        }
+        int bodyStart = domainXml.indexOf('>', javaConfig) + 1;
+        String body = domainXml.substring(bodyStart, javaConfigEnd);
+        if (CDS_OPTION.matcher(body).find()) {
+            body = AUTO_CREATE_OPTION.matcher(CDS_OPTION.matcher(body).replaceAll("")).replaceAll("");
+        }
+        Matcher indent = JVM_OPTIONS_INDENT.matcher(body);
+        String prefix = "\n" + (indent.find() ? indent.group(1) : "");
+        String added = options.stream().map(option -> prefix + "<jvm-options>" + escape(option) + "</jvm-options>")
+                .collect(Collectors.joining());
+        return domainXml.substring(0, bodyStart) + added + body + domainXml.substring(javaConfigEnd);
+    }
+
+    /**
+     * Archive for the domain's JDK and server modules. Archives of other JDKs or servers are removed.
+     */
+    static Path archive(Path domainXml, Path javaHome) throws IOException {
+        Path domainDirectory = domainXml.getParent().getParent();
+        Path installRoot = domainDirectory.getParent().getParent();
+        var key = new CRC32C();
+        key.update(javaHome.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8));
+        key.update(Files.readAllBytes(javaHome.resolve("release")));
+        try (Stream<Path> modules = Files.list(installRoot.resolve("modules"))) {
+            for (Path module : modules.sorted().toList()) {
+                var attributes = Files.readAttributes(module, BasicFileAttributes.class);
+                key.update("%s %d %d".formatted(module.getFileName(), attributes.size(),
+                        attributes.lastModifiedTime().toMillis()).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        Path directory = Files.createDirectories(domainDirectory.resolve(DIRECTORY));
+        Path archive = directory.resolve("server-%08x.jsa".formatted(key.getValue()));
+        try (Stream<Path> archives = Files.list(directory)) {
+            for (Path stale : archives.filter(file -> !file.equals(archive)).toList()) {
+                Files.deleteIfExists(stale);
+            }
+        }
+        return archive;
+    }
+
+    /**
+     * Finds domain.xml in the extracted server. With several domains, the one named in the
+     * {@code start-domain} execution's arguments is used, otherwise {@code domain1}.
+     */
+    private @Nullable Path domainXml(@Nullable List<ServerExtraction.Distribution> distributions,
+                                     List<String> arguments) {
+        if (distributions == null) {
+            return null;
+        }
+        List<Path> candidates = new ArrayList<>();
+        for (var distribution : distributions) {
+            if (Files.isDirectory(distribution.outputDirectory())) {
+                try (Stream<Path> files = Files.find(distribution.outputDirectory(), DOMAIN_XML_DEPTH,
+                        (file, attributes) -> isDomainXml(file))) {
+                    files.forEach(candidates::add);
+                } catch (IOException e) {
+                    getLog().debug("Cannot search for domain.xml", e);
+                }
+            }
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        return candidates.stream().filter(file -> arguments.contains(domainName(file))).findFirst()
+                .or(() -> candidates.stream().filter(file -> "domain1".equals(domainName(file))).findFirst())
+                .orElse(null);
+    }
+
+    private static boolean isDomainXml(Path file) {
+        return file.endsWith("domain.xml") && file.getParent().endsWith("config")
+                && file.getParent().getParent().getParent() != null
+                && file.getParent().getParent().getParent().endsWith("domains");
+    }
+
+    private static String domainName(Path domainXml) {
+        return domainXml.getParent().getParent().getFileName().toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.maven.plugin.logging.Log;
+import org.jspecify.annotations.Nullable;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Processes batches of changed files in stages (i.e. classify, compile, sync, redeploy, notify)
+ * on its own worker thread, so changes keep being collected while a batch is processed.
+ * <p>
+ * Batches submitted while another one is being processed are coalesced into one.
+ * When newer changes are pending before a stage that is skipped if stale, the in-flight batch is abandoned
+ * and its files are merged into the pending batch, so under rapid editing only the newest state
+ * reaches the server. Stages that are already running are not interrupted.
+ */
+@RequiredArgsConstructor
+class ChangePipeline implements AutoCloseable {
+    /**
+     * Pipeline stage.
+     *
+     * @param name stage name, for logging
+     * @param action processes the batch, returns false when the remaining stages should not run
+     * @param skipIfStale whether the batch is abandoned before this stage when newer changes are pending
+     */
+    record Stage(String name, Predicate<Batch> action, boolean skipIfStale) { }
+
+    /**
+     * Changed files and the state that stages pass to the following stages.
+     */
+    static final class Batch {
+        Set<Path> files;
+        boolean codeChanged;
+        IncrementalCompiler.@Nullable Result compilation;
+        /**
+         * Paths of the changed static assets, relative to the context root,
+         * null unless only static assets changed.
+         */
+        @Nullable List<String> assets;
+        /**
+         * Views affected by the changed Facelets files, null when any view may be affected.
+         */
+        @Nullable List<String> views;
+        /**
+         * Class files written or deleted by the compilations of abandoned batches that were merged into this one,
+         * which were not synchronized yet, null if they are not known.
+         */
+        @Nullable Set<Path> previousClassFiles;
+
+        Batch(Set<Path> files) {
+            this(files, Set.of());
+        }
+
+        Batch(Set<Path> files, @Nullable Set<Path> previousClassFiles) {
+            this.files = files;
+            this.previousClassFiles = previousClassFiles;
+        }
+    }
+
+    private final Log log;
+    private final List<Stage> stages;
+    private final boolean timingSummary;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Set<Path> pendingFiles = new HashSet<>();
+    private @Nullable Set<Path> pendingClassFiles = new HashSet<>();
+    private boolean draining;
+
+    /**
+     * Queues changed files for processing, merged with any files that are not processed yet.
+     */
+    void submit(Set<Path> files) {
+        synchronized (pendingFiles) {
+            pendingFiles.addAll(files);
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        worker.execute(this::drain);
+    }
+
+    @Override
+    public void close() {
+        worker.shutdownNow();
+    }
+
+    private void drain() {
+        while (true) {
+            Batch batch;
+            synchronized (pendingFiles) {
+                if (pendingFiles.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                batch = new Batch(Set.copyOf(pendingFiles),
+                        pendingClassFiles == null ? null : Set.copyOf(pendingClassFiles));
+                pendingFiles.clear();
+                pendingClassFiles = new HashSet<>();
+            }
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                log.warn("Processing changes failed", e);
+            }
+        }
+    }
+
+    private void process(Batch batch) {
+        long start = System.nanoTime();
+        var timings = new StringJoiner(", ");
+        try {
+            for (Stage stage : stages) {
+                if (stage.skipIfStale() && requeueIfStale(batch)) {
+                    log.debug("Newer changes pending, skipping %s and later stages".formatted(stage.name()));
+                    timings.add(stage.name() + " skipped");
+                    return;
+                }
+                var event = new DevModeEvents.ChangeStage();
+                event.begin();
+                long stageStart = System.nanoTime();
+                boolean proceed = stage.action().test(batch);
+                timings.add("%s %d ms".formatted(stage.name(), millisSince(stageStart)));
+                event.stage = stage.name();
+                event.files = batch.files.size();
+                event.commit();
+                if (!proceed) {
+                    return;
+                }
+            }
+        } finally {
+            if (timingSummary) {
+                log.info("Change of %d files processed in %d ms (%s)"
+                        .formatted(batch.files.size(), millisSince(start), timings));
+            }
+        }
+    }
+
+    private static long millisSince(long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
+    }
+
+    private boolean requeueIfStale(Batch batch) {
+        synchronized (pendingFiles) {
+            if (pendingFiles.isEmpty()) {
+                return false;
+            }
+            pendingFiles.addAll(batch.files);
+            // the abandoned compilation's class files are synchronized with the merged batch
+            Set<Path> classFiles = batch.compilation != null ? batch.compilation.classFiles() : Set.of();
+            if (pendingClassFiles != null && batch.previousClassFiles != null && classFiles != null) {
+                pendingClassFiles.addAll(batch.previousClassFiles);
+                pendingClassFiles.addAll(classFiles);
+            } else {
+                pendingClassFiles = null;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.jspecify.annotations.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal class file reader, extracts only what the incremental compiler needs:
+ * class name, source file name, referenced classes (internal names, i.e. {@code com/example/Foo}),
+ * the shape of the class (hash of its modifiers, supertypes, fields and method signatures),
+ * which stays the same when only method bodies change, and a hash of the values of its constant fields,
+ * which javac inlines into the classes using them (0 if it has none).
+ */
+record ClassFileInfo(String name, @Nullable String sourceFile, Set<String> references, int shape, int constants) {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final Pattern DESCRIPTOR_TYPE = Pattern.compile("L([^;<>()\\[]+)[;<]");
+
+    @SuppressWarnings({"checkstyle:MagicNumber", "checkstyle:CyclomaticComplexity"})
+    static ClassFileInfo read(byte[] bytes) throws IOException {
+        var input = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        input.skipNBytes(4);
+        int poolSize = input.readUnsignedShort();
+        String[] utf8 = new String[poolSize];
+        int[] classNameIndex = new int[poolSize];
+        Object[] values = new Object[poolSize];
+        int[] stringIndex = new int[poolSize];
+        for (int index = 1; index < poolSize; ++index) {
+            int tag = input.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[index] = input.readUTF();
+                case 7 -> classNameIndex[index] = input.readUnsignedShort();
+                case 8 -> stringIndex[index] = input.readUnsignedShort();
+                case 16, 19, 20 -> input.skipNBytes(2);
+                case 15 -> input.skipNBytes(3);
+                case 3, 4 -> values[index] = input.readInt();
+                case 9, 10, 11, 12, 17, 18 -> input.skipNBytes(4);
+                case 5, 6 -> {
+                    values[index] = input.readLong();
+                    ++index;
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        List<Object> shape = new ArrayList<>();
+        shape.add(input.readUnsignedShort());
+        String name = utf8[classNameIndex[input.readUnsignedShort()]];
+        shape.add(utf8[classNameIndex[input.readUnsignedShort()]]);
+        int interfaces = input.readUnsignedShort();
+        for (int index = 0; index < interfaces; ++index) {
+            shape.add(utf8[classNameIndex[input.readUnsignedShort()]]);
+        }
+        List<Object> constants = new ArrayList<>();
+        for (int members = 0; members < 2; ++members) {
+            int count = input.readUnsignedShort();
+            for (int member = 0; member < count; ++member) {
+                shape.add(input.readUnsignedShort());
+                String memberName = utf8[input.readUnsignedShort()];
+                shape.add(memberName);
+                shape.add(utf8[input.readUnsignedShort()]);
+                Object constant = memberAttributes(input, utf8, values, stringIndex);
+                if (constant != null) {
+                    constants.add(memberName);
+                    constants.add(constant);
+                }
+            }
+        }
+        String sourceFile = null;
+        int attributes = input.readUnsignedShort();
+        for (int attribute = 0; attribute < attributes; ++attribute) {
+            String attributeName = utf8[input.readUnsignedShort()];
+            int length = input.readInt();
+            if ("SourceFile".equals(attributeName)) {
+                sourceFile = utf8[input.readUnsignedShort()];
+            } else {
+                input.skipNBytes(length);
+            }
+        }
+        return new ClassFileInfo(name, sourceFile, references(name, utf8, classNameIndex), shape.hashCode(),
+                constants.isEmpty() ? 0 : constants.hashCode());
+    }
+
+    /**
+     * Skips the attributes of a field or method.
+     *
+     * @return value of the ConstantValue attribute of a constant field, null otherwise
+     */
+    private static @Nullable Object memberAttributes(DataInputStream input, String[] utf8, Object[] values,
+                                                     int[] stringIndex) throws IOException {
+        Object constant = null;
+        int attributes = input.readUnsignedShort();
+        for (int attribute = 0; attribute < attributes; ++attribute) {
+            String attributeName = utf8[input.readUnsignedShort()];
+            int length = input.readInt();
+            if ("ConstantValue".equals(attributeName)) {
+                int valueIndex = input.readUnsignedShort();
+                // string constants refer to their UTF-8 entry
+                constant = stringIndex[valueIndex] != 0 ? utf8[stringIndex[valueIndex]] : values[valueIndex];
+            } else {
+                input.skipNBytes(length);
+            }
+        }
+        return constant;
+    }
+
+    private static Set<String> references(String name, String[] utf8, int[] classNameIndex) {
+        Set<String> references = new HashSet<>();
+        for (int index : classNameIndex) {
+            if (index != 0 && !utf8[index].startsWith("[")) {
+                references.add(utf8[index]);
+            }
+        }
+        // types only used in field and method signatures do not have class constants
+        for (String value : utf8) {
+            if (value != null && value.indexOf(';') > 0) {
+                Matcher matcher = DESCRIPTOR_TYPE.matcher(value);
+                while (matcher.find()) {
+                    references.add(matcher.group(1));
+                }
+            }
+        }
+        references.remove(name);
+        return references;
+    }
+}
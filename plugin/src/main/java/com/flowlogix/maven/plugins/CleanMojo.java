@@ -23,8 +23,9 @@ import lombok.SneakyThrows;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.codehaus.plexus.util.FileUtils;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import static com.flowlogix.maven.plugins.DevModeMojo.FLOWLOGIX_LIVERELOAD_HELPER_APP_NAME;
 
 /**
@@ -42,9 +43,15 @@ public class CleanMojo extends CommonDevMojo {
         if (locations == null) {
             throw new MojoFailureException("Error determining server locations, is the server running?");
         }
-        String destination = "%s/lib/warlibs".formatted(locations.properties().instanceRoot());
-        FileUtils.cleanDirectory(destination);
-        getLog().info("Removed dependencies from %s - restart may be required (mvn server:restart)".formatted(destination));
+        Path destination = Paths.get(locations.properties().instanceRoot(), "lib", "warlibs");
+        int removed = DependencySync.clean(destination);
+        if (removed > 0) {
+            getLog().info("Removed %d dependencies from %s - restart required (mvn server:restart)"
+                    .formatted(removed, destination));
+        } else {
+            getLog().info("No dependencies in %s, no restart required".formatted(destination));
+        }
+        devSession.clear();
         deployer.sendUndeployCommand(FLOWLOGIX_LIVERELOAD_HELPER_APP_NAME, deployer::printResponse);
         if (deployer.sendUndeployCommand(name, deployer::printResponse) != Deployer.CommandResult.SUCCESS) {
             throw new MojoFailureException("Undeployment failed, see log for details.");
@@ -27,8 +27,10 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.aether.RepositorySystem;
 import org.jspecify.annotations.Nullable;
 import javax.inject.Inject;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.function.Consumer;
@@ -62,6 +64,9 @@ abstract class CommonDevMojo extends AbstractMojo {
     @Inject
     BuildPluginManager pluginManager;
 
+    @Inject
+    RepositorySystem repositorySystem;
+
     /**
      * Administration URL to connect to the Server.
      */
@@ -86,6 +91,13 @@ abstract class CommonDevMojo extends AbstractMojo {
     @Parameter(defaultValue = "true", property = "server.warlibs")
     boolean warlibs;
 
+    /**
+     * Whether to start the server with an application class data sharing (AppCDS) archive.
+     * The archive is created when the server stops, and used on later starts.
+     */
+    @Parameter(defaultValue = "false", property = "server.appcds")
+    boolean appCdsEnabled;
+
     /**
      * Whether to enable availability on the deployed application.
      */
@@ -100,11 +112,23 @@ abstract class CommonDevMojo extends AbstractMojo {
 
     final Deployer deployer = new Deployer(this);
     final Watcher watcher = new Watcher(this);
+    final ExplodedWarSync warSync = new ExplodedWarSync(this);
+    final ServerLocationsCache serverLocationsCache = new ServerLocationsCache(this);
+    final AdminCommandQueue commandQueue = new AdminCommandQueue(this);
+    final ServerExtraction serverExtraction = new ServerExtraction(this);
+    final AppCds appCds = new AppCds(this);
+    final DomainStart domainStart = new DomainStart(this);
+    final DevSessionState devSession = new DevSessionState(this);
 
     @Getter(lazy = true)
     private final Path explodedWarDir = Paths.get(project.getBuild().getDirectory(), project.getBuild().getFinalName());
     @Getter(lazy = true)
     private final Path srcMainDir = Paths.get(project.getBasedir().getAbsolutePath(), "src", "main");
+    /**
+     * Directory where state is kept between plugin invocations.
+     */
+    @Getter(lazy = true)
+    private final Path stateDir = Paths.get(project.getBuild().getDirectory(), "container-deploy");
     @Getter(lazy = true)
     private final String baseURL = computeBaseURL();
     @Getter(lazy = true)
@@ -178,6 +202,30 @@ abstract class CommonDevMojo extends AbstractMojo {
     }
 
     boolean extractAppServer() {
+        return extractCachedAppServer() || unpackAppServer();
+    }
+
+    boolean extractCachedAppServer() {
+        return extractCachedAppServer(serverExtraction.configuration());
+    }
+
+    /**
+     * Extracts the server without executing a mojo or accessing the project,
+     * so it may run while mojos of this project execute.
+     *
+     * @param configuration read from the project with {@link ServerExtraction#configuration()}
+     * @return false if the server has to be unpacked with {@link #unpackAppServer()}
+     */
+    boolean extractCachedAppServer(ServerExtraction.@Nullable Configuration configuration) {
+        try {
+            return serverExtraction.extract(configuration);
+        } catch (IOException e) {
+            getLog().warn("Cached extraction failed, unpacking with %s".formatted(MAVEN_DEPENDENCY_PLUGIN), e);
+            return false;
+        }
+    }
+
+    boolean unpackAppServer() {
         return callGenericMojo(ORG_APACHE_MAVEN_PLUGINS, MAVEN_DEPENDENCY_PLUGIN, "unpack",
                 "unpack-server", project, session, pluginManager, this::addSkipConfiguration);
     }
@@ -194,23 +242,34 @@ abstract class CommonDevMojo extends AbstractMojo {
 
     boolean startAppServer() {
         if (!deployer.pingServer()) {
+            serverLocationsCache.invalidate();
+            commandQueue.reset();
+            appCds.configure(appCdsEnabled);
             return callGenericMojo("org.codehaus.mojo", "exec-maven-plugin", "exec",
-                    "start-domain", project, session, pluginManager, this::addSkipConfiguration);
+                    DomainStart.EXECUTION, project, session, pluginManager, this::addSkipConfiguration);
         }
         getLog().info("Server already running");
         return false;
     }
 
     boolean compileSources() {
-        return callGenericMojo(ORG_APACHE_MAVEN_PLUGINS,
+        var event = new DevModeEvents.Compile();
+        event.begin();
+        event.success = callGenericMojo(ORG_APACHE_MAVEN_PLUGINS,
                 "maven-compiler-plugin", "compile", null,
                 project, session, pluginManager, config -> { });
+        event.commit();
+        return event.success;
     }
 
     boolean explodedWar() {
-        return callGenericMojo(ORG_APACHE_MAVEN_PLUGINS,
+        var event = new DevModeEvents.ExplodedWar();
+        event.begin();
+        event.success = callGenericMojo(ORG_APACHE_MAVEN_PLUGINS,
                 "maven-war-plugin", "exploded", null,
                 project, session, pluginManager, config -> { });
+        event.commit();
+        return event.success;
     }
 
     private String computeBaseURL() {
@@ -29,6 +29,9 @@ import org.apache.maven.plugins.annotations.Mojo;
 public class ContainerStopMojo extends CommonDevMojo {
     @Override
     public void execute() throws MojoFailureException {
+        serverLocationsCache.invalidate();
+        commandQueue.reset();
+        devSession.clear();
         if (!callGenericMojo("org.codehaus.mojo", "exec-maven-plugin", "exec",
                 "stop-domain", project, session, pluginManager, this::addSkipConfiguration)) {
             throw new MojoFailureException("Failed to stop container domain");
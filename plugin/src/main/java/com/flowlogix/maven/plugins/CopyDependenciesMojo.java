@@ -25,9 +25,12 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.codehaus.plexus.util.FileUtils;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Goal which copies dependencies to lib/warlibs directory.
+ * Only changed dependencies are copied, and dependencies which are no longer used are removed.
  */
 @Mojo(name = "deps", requiresProject = false, threadSafe = true,
         requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME,
@@ -40,11 +43,20 @@ public class CopyDependenciesMojo extends CommonDevMojo {
         if (locations == null) {
             throw new MojoFailureException("Error determining server locations, is the server running?");
         }
-        String destination = "%s/lib/warlibs".formatted(locations.properties().instanceRoot());
-        FileUtils.cleanDirectory(destination);
-        if (!copyDependencies(destination)) {
-            throw new MojoFailureException("Failed to copy dependencies");
+        Path destination = Paths.get(locations.properties().instanceRoot(), "lib", "warlibs");
+        var result = new DependencySync(this).synchronize(destination);
+        if (result == null) {
+            FileUtils.cleanDirectory(destination.toFile());
+            if (!copyDependencies(destination.toString())) {
+                throw new MojoFailureException("Failed to copy dependencies");
+            }
+            getLog().info("Copied dependencies to %s - restart may be required (mvn server:restart)"
+                    .formatted(destination));
+        } else if (result.isRestartRequired()) {
+            getLog().info("Synchronized dependencies in %s: %s - restart required (mvn server:restart)"
+                    .formatted(destination, result.describe()));
+        } else {
+            getLog().info("Dependencies in %s are up to date, no restart required".formatted(destination));
         }
-        getLog().info("Copied dependencies to %s - restart may be required (mvn server:restart)".formatted(destination));
     }
 }
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ScopeArtifactFilter;
+import org.apache.maven.model.PluginExecution;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.jspecify.annotations.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static com.flowlogix.maven.plugins.CommonDevMojo.MAVEN_DEPENDENCY_PLUGIN;
+import static com.flowlogix.maven.plugins.CommonDevMojo.ORG_APACHE_MAVEN_PLUGINS;
+
+/**
+ * Synchronizes the server's lib/warlibs directory with the project's dependencies.
+ * Artifacts are selected the same way as the {@code default-cli} execution of {@code copy-dependencies},
+ * which has to limit them to compile or runtime dependencies with {@code includeScope}.
+ * Jars with the same name, size and checksum are left alone, so the server's jar caches stay valid.
+ * New or changed jars are hard linked from the local repository when possible, otherwise copied in parallel,
+ * and jars which are no longer dependencies are removed.
+ */
+@RequiredArgsConstructor
+class DependencySync {
+    private static final String EXECUTION = "default-cli";
+    /**
+     * {@code copy-dependencies} options understood here, with any other option the goal is executed instead.
+     */
+    private static final Set<String> SUPPORTED_OPTIONS = Set.of("skip", "outputDirectory",
+            "includeScope", "excludeScope", "includeArtifactIds", "excludeArtifactIds",
+            "includeGroupIds", "excludeGroupIds", "includeTypes", "excludeTypes",
+            "excludeTransitive", "stripVersion");
+    /**
+     * Scopes resolved for this plugin's goals, without an includeScope within them
+     * copy-dependencies copies test dependencies as well, which are not resolved here.
+     */
+    private static final Set<String> RESOLVED_SCOPES = Set.of(Artifact.SCOPE_COMPILE, Artifact.SCOPE_RUNTIME,
+            Artifact.SCOPE_PROVIDED, Artifact.SCOPE_SYSTEM);
+
+    /**
+     * Outcome of a synchronization.
+     *
+     * @param added jars that were not in the directory
+     * @param updated jars whose content changed
+     * @param removed jars that are no longer dependencies
+     * @param unchanged jars that were left alone
+     * @param linked added or updated jars that were hard linked instead of copied
+     */
+    record Result(int added, int updated, int removed, int unchanged, int linked) {
+        boolean isRestartRequired() {
+            return added + updated + removed > 0;
+        }
+
+        String describe() {
+            return "%d added (%d linked), %d updated, %d removed, %d unchanged"
+                    .formatted(added, linked, updated, removed, unchanged);
+        }
+    }
+
+    @Delegate
+    private final CommonDevMojo mojo;
+
+    /**
+     * Synchronizes the dependencies with the destination directory.
+     *
+     * @return null if the configuration of copy-dependencies is not understood, and the goal should be executed instead
+     */
+    @Nullable Result synchronize(Path destination) throws IOException {
+        var plugin = mojo.project.getPlugin("%s:%s".formatted(ORG_APACHE_MAVEN_PLUGINS, MAVEN_DEPENDENCY_PLUGIN));
+        PluginExecution execution = plugin == null ? null : plugin.getExecutionsAsMap().get(EXECUTION);
+        if (execution == null) {
+            return null;
+        }
+        var configuration = (Xpp3Dom) execution.getConfiguration();
+        if (configuration == null) {
+            configuration = new Xpp3Dom("configuration");
+        }
+        var unsupported = Arrays.stream(configuration.getChildren()).map(Xpp3Dom::getName)
+                .filter(Predicate.not(SUPPORTED_OPTIONS::contains)).toList();
+        if (!unsupported.isEmpty()) {
+            getLog().debug("Copying all dependencies, options not supported by incremental sync: " + unsupported);
+            return null;
+        }
+        String includeScope = option(configuration, "includeScope");
+        if (includeScope == null || !RESOLVED_SCOPES.contains(includeScope)) {
+            getLog().debug("Copying all dependencies, incremental sync requires includeScope of " + RESOLVED_SCOPES);
+            return null;
+        }
+        return synchronize(sources(mojo.project.getArtifacts(), configuration), destination);
+    }
+
+    /**
+     * Removes all files from the directory.
+     *
+     * @return number of removed files
+     */
+    static int clean(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int removed;
+        try (Stream<Path> files = Files.list(directory)) {
+            removed = (int) files.count();
+        }
+        if (removed > 0) {
+            FileUtils.cleanDirectory(directory.toFile());
+        }
+        return removed;
+    }
+
+    /**
+     * @param sources file name in the destination directory to the file in the local repository
+     */
+    static Result synchronize(Map<String, Path> sources, Path destination) throws IOException {
+        Files.createDirectories(destination);
+        Map<String, Path> existing;
+        try (Stream<Path> files = Files.list(destination)) {
+            existing = files.filter(Files::isRegularFile)
+                    .collect(Collectors.toMap(file -> file.getFileName().toString(), file -> file));
+        }
+        var removed = existing.entrySet().stream().filter(entry -> !sources.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue).toList();
+        for (Path stale : removed) {
+            Files.delete(stale);
+        }
+        var added = new AtomicInteger();
+        var updated = new AtomicInteger();
+        var linked = new AtomicInteger();
+        try {
+            sources.entrySet().parallelStream().forEach(entry -> {
+                Path target = destination.resolve(entry.getKey());
+                Path current = existing.get(entry.getKey());
+                if (current != null && isSameContent(entry.getValue(), current)) {
+                    return;
+                }
+                (current == null ? added : updated).incrementAndGet();
+                if (install(entry.getValue(), target)) {
+                    linked.incrementAndGet();
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Result(added.get(), updated.get(), removed.size(),
+                sources.size() - added.get() - updated.get(), linked.get());
+    }
+
+    private static Map<String, Path> sources(Set<Artifact> artifacts, Xpp3Dom configuration) {
+        Predicate<Artifact> filter = artifact -> artifact.getFile() != null && artifact.getFile().isFile();
+        String includeScope = option(configuration, "includeScope");
+        if (includeScope != null) {
+            filter = filter.and(new ScopeArtifactFilter(includeScope)::include);
+        }
+        String excludeScope = option(configuration, "excludeScope");
+        if (excludeScope != null) {
+            filter = filter.and(Predicate.not(new ScopeArtifactFilter(excludeScope)::include));
+        }
+        filter = filter.and(matches(configuration, "ArtifactIds", Artifact::getArtifactId))
+                .and(matches(configuration, "GroupIds", Artifact::getGroupId))
+                .and(matches(configuration, "Types", Artifact::getType));
+        if (Boolean.parseBoolean(option(configuration, "excludeTransitive"))) {
+            filter = filter.and(artifact -> artifact.getDependencyTrail() == null
+                    || artifact.getDependencyTrail().size() <= 2);
+        }
+        boolean stripVersion = Boolean.parseBoolean(option(configuration, "stripVersion"));
+        Map<String, Path> sources = new HashMap<>();
+        artifacts.stream().filter(filter)
+                .forEach(artifact -> sources.put(fileName(artifact, stripVersion), artifact.getFile().toPath()));
+        return sources;
+    }
+
+    /**
+     * Same file name as {@code copy-dependencies} uses.
+     */
+    static String fileName(Artifact artifact, boolean stripVersion) {
+        String extension = artifact.getArtifactHandler() == null ? artifact.getType()
+                : artifact.getArtifactHandler().getExtension();
+        return artifact.getArtifactId() + (stripVersion ? "" : "-" + artifact.getBaseVersion())
+                + (artifact.hasClassifier() ? "-" + artifact.getClassifier() : "") + "." + extension;
+    }
+
+    private static Predicate<Artifact> matches(Xpp3Dom configuration, String option,
+                                               Function<Artifact, String> property) {
+        List<String> includes = list(option(configuration, "include" + option));
+        List<String> excludes = list(option(configuration, "exclude" + option));
+        return artifact -> (includes.isEmpty() || includes.contains(property.apply(artifact)))
+                && !excludes.contains(property.apply(artifact));
+    }
+
+    private static List<String> list(@Nullable String value) {
+        return value == null ? List.of() : Arrays.stream(value.split(","))
+                .map(String::strip).filter(Predicate.not(String::isEmpty)).toList();
+    }
+
+    private static @Nullable String option(Xpp3Dom configuration, String name) {
+        Xpp3Dom child = configuration.getChild(name);
+        return child == null || child.getValue() == null || child.getValue().isBlank() ? null : child.getValue().strip();
+    }
+
+    private static boolean isSameContent(Path source, Path target) {
+        try {
+            if (Files.size(source) != Files.size(target)) {
+                return false;
+            }
+            // hard linked, otherwise rebuilt snapshots may keep their size and timestamp
+            return Files.isSameFile(source, target) || ContentHash.of(source) == ContentHash.of(target);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true if hard linked, false if copied
+     */
+    private static boolean install(Path source, Path target) {
+        try {
+            Files.deleteIfExists(target);
+            try {
+                Files.createLink(target, source);
+                return true;
+            } catch (IOException | UnsupportedOperationException e) {
+                // different file system, or links not supported
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -18,18 +18,19 @@
  */
 package com.flowlogix.maven.plugins;
 
+import com.flowlogix.maven.plugins.AdminCommandQueue.AppState;
 import com.flowlogix.plugins.common.ReloadStatus;
-import jakarta.json.Json;
-import jakarta.json.JsonObject;
-import jakarta.json.JsonReader;
+import jakarta.json.bind.Jsonb;
 import jakarta.json.bind.JsonbBuilder;
 import jakarta.json.bind.annotation.JsonbProperty;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.experimental.Delegate;
+import org.jspecify.annotations.Nullable;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.ConnectException;
 import java.net.URI;
 import java.net.URLEncoder;
@@ -38,12 +39,16 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
  * Common code for deploy, undeploy, enable and disable server commands.
@@ -55,12 +60,45 @@ class Deployer {
      */
     static final String DEFAULT = "DEFAULT";
     static final String FLOWLOGIX_LIVERELOAD = "flowlogix-livereload";
+    /**
+     * Shared across all commands and mojo executions, keeps connections alive and upgrades to HTTP/2 where possible.
+     */
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .build();
+    /**
+     * Thread-safe and expensive to create, shared by all serialization.
+     */
+    static final Jsonb JSONB = JsonbBuilder.create();
 
     enum CommandResult {
         NO_CONNECTION, ERROR, SUCCESS
     }
 
-    record CommandResponse(int statusCode, String body) { }
+    /**
+     * Response to an admin or reload command.
+     *
+     * @param statusCode HTTP status code, 0 if there was no response
+     * @param report action report of admin commands, null if the response did not contain one
+     * @param body message of the action report, or the response text or error message if there is no report
+     */
+    record CommandResponse(int statusCode, @Nullable ActionReport report, @Nullable String body) {
+        boolean isSuccess() {
+            return statusCode == HTTP_OK && (report == null || !report.isFailure());
+        }
+    }
+
+    /**
+     * Result of an admin command, as reported by the server.
+     *
+     * @param exitCode SUCCESS, WARNING or FAILURE
+     */
+    record ActionReport(@Nullable String message, @Nullable String command, @Nullable String exitCode,
+                        Map<String, String> properties) {
+        boolean isFailure() {
+            return "FAILURE".equals(exitCode);
+        }
+    }
 
     public record ServerLocations(
             String message,
@@ -77,6 +115,14 @@ class Deployer {
                 @JsonbProperty("Pid") String pid,
                 @JsonbProperty("Config-Dir") String configDir
         ) { }
+
+        static ServerLocations of(ActionReport report) {
+            var properties = report.properties();
+            return new ServerLocations(report.message(), report.command(), report.exitCode(), new Properties(
+                    properties.get("Restart-Required"), properties.get("Instance-Root"),
+                    properties.get("Base-Root"), properties.get("Uptime"), properties.get("Domain-Root"),
+                    properties.get("Pid"), properties.get("Config-Dir")));
+        }
     }
 
     @Delegate
@@ -84,22 +130,47 @@ class Deployer {
 
     CommandResult sendDisableCommand(@NonNull BiConsumer<String, CommandResponse> responseCallback) {
         getLog().debug("Sending disable command");
-        return sendCommand("disable", Map.of(DEFAULT, mojo.project.getBuild().getFinalName()), responseCallback);
+        String application = mojo.project.getBuild().getFinalName();
+        return mojo.commandQueue.submit(application, AppState.DISABLED, null, true,
+                () -> sendCommandAsync("disable", Map.of(DEFAULT, application), responseCallback)).join();
     }
 
     CommandResult sendEnableCommand(@NonNull BiConsumer<String, CommandResponse> responseCallback) {
         getLog().debug("Sending enable command");
-        return sendCommand("enable", Map.of(DEFAULT, mojo.project.getBuild().getFinalName()), responseCallback);
+        String application = mojo.project.getBuild().getFinalName();
+        return mojo.commandQueue.submit(application, AppState.ENABLED, mojo.warSync::fingerprint, !mojo.force,
+                () -> sendCommandAsync("enable", Map.of(DEFAULT, application), responseCallback)).join();
+    }
+
+    /**
+     * Disables and enables the application, or deploys it if it can not be disabled.
+     * Skipped if the application was enabled by the plugin and its files did not change since.
+     */
+    CommandResult sendRedeployCommands(@NonNull BiConsumer<String, CommandResponse> responseCallback) {
+        getLog().debug("Sending disable and enable commands");
+        String application = mojo.project.getBuild().getFinalName();
+        return mojo.commandQueue.submit(application, AppState.ENABLED, mojo.warSync::fingerprint, !mojo.force,
+                () -> sendCommandAsync("disable", Map.of(DEFAULT, application), responseCallback)
+                        .thenCompose(result -> result == CommandResult.ERROR
+                                ? sendCommandAsync("deploy", deployParameters(null, 0), responseCallback)
+                                : sendCommandAsync("enable", Map.of(DEFAULT, application), responseCallback)))
+                .join();
     }
 
     CommandResult sendDeployCommand(@NonNull BiConsumer<String, CommandResponse> responseCallback,
                                     String name, Integer cacheTTL) {
         getLog().info("Sending deploy command");
+        return mojo.commandQueue.submit(name != null ? name : mojo.project.getBuild().getFinalName(),
+                AppState.ENABLED, mojo.warSync::fingerprint, false,
+                () -> sendCommandAsync("deploy", deployParameters(name, cacheTTL), responseCallback)).join();
+    }
+
+    private Map<String, String> deployParameters(@Nullable String name, @Nullable Integer cacheTTL) {
         String properties = Stream.of("warlibs=%s".formatted(String.valueOf(mojo.warlibs)),
                         cacheTTL != null ? "cacheTTL=%d".formatted(cacheTTL) : null)
                 .filter(Objects::nonNull)
                 .collect(Collectors.joining(":"));
-        return sendCommand("deploy", Map.of(
+        return Map.of(
                 "name", name != null ? name : mojo.project.getBuild().getFinalName(),
                 "availabilityenabled", String.valueOf(mojo.availabilityenabled),
                 "keepstate", String.valueOf(mojo.keepstate),
@@ -107,13 +178,14 @@ class Deployer {
                 "properties", properties,
                 DEFAULT, Paths.get(mojo.project.getBuild().getDirectory(),
                         mojo.project.getBuild().getFinalName()).toString()
-        ), responseCallback);
+        );
     }
 
     CommandResult sendUndeployCommand(String name, @NonNull BiConsumer<String, CommandResponse> responseCallback) {
         getLog().info("Sending undeploy command");
-        return sendCommand("undeploy", Map.of(DEFAULT, name == null
-                ? mojo.project.getBuild().getFinalName() : name), responseCallback);
+        String application = name == null ? mojo.project.getBuild().getFinalName() : name;
+        return mojo.commandQueue.submit(application, AppState.UNDEPLOYED, null, true,
+                () -> sendCommandAsync("undeploy", Map.of(DEFAULT, application), responseCallback)).join();
     }
 
     public boolean pingServer() {
@@ -121,117 +193,194 @@ class Deployer {
     }
 
     ServerLocations serverLocations() {
+        return serverLocationsAsync().join();
+    }
+
+    /**
+     * Server locations, from the {@link ServerLocationsCache cache} if possible.
+     */
+    CompletableFuture<ServerLocations> serverLocationsAsync() {
+        ServerLocations cached = mojo.serverLocationsCache.get();
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return fetchServerLocationsAsync();
+    }
+
+    /**
+     * Server locations from the server, bypassing the cache.
+     */
+    CompletableFuture<ServerLocations> fetchServerLocationsAsync() {
         AtomicReference<ServerLocations> serverLocations = new AtomicReference<>();
-        return switch (sendCommand("__locations", Map.of(),
-                (command, response) -> serverLocationsResponse(command, response, serverLocations))) {
-            case NO_CONNECTION, ERROR -> null;
-            case SUCCESS -> serverLocations.get();
-        };
+        return sendCommandAsync("__locations", Map.of(),
+                (command, response) -> serverLocationsResponse(command, response, serverLocations))
+                .thenApply(result -> switch (result) {
+                    case NO_CONNECTION, ERROR -> null;
+                    case SUCCESS -> serverLocations.get();
+                })
+                .whenComplete((locations, e) -> {
+                    if (locations != null) {
+                        mojo.serverLocationsCache.put(locations);
+                    }
+                });
     }
 
-    @SuppressWarnings("checkstyle:MagicNumber")
-    private void serverLocationsResponse(String command, CommandResponse response,
-                                         AtomicReference<ServerLocations> serverLocations) {
-        if (response.statusCode() != 200) {
+    void serverLocationsResponse(String command, CommandResponse response,
+                                 AtomicReference<ServerLocations> serverLocations) {
+        if (!response.isSuccess()) {
             printResponse(command, response);
             return;
         }
-
-        String body = response.body();
-        int dataIndex = body.lastIndexOf("data:");
-        if (dataIndex != -1) {
-            body = body.substring(dataIndex + 5).trim();
-        }
-        try (var jsonb = JsonbBuilder.create();
-             JsonReader reader = Json.createReader(new StringReader(body))) {
-            JsonObject actionReport = reader.readObject().getJsonObject("action-report");
-            if (actionReport != null) {
-                serverLocations.set(jsonb.fromJson(jsonb.toJson(actionReport), ServerLocations.class));
-            } else {
-                serverLocations.set(jsonb.fromJson(response.body(), ServerLocations.class));
-            }
-        } catch (Exception e) {
-            getLog().error("Failed to parse server locations response: %s - %s"
-                    .formatted(e.getMessage(), response.body()));
+        if (response.report() == null) {
+            getLog().error("Failed to parse server locations response: %s".formatted(response.body()));
+            return;
         }
+        serverLocations.set(ServerLocations.of(response.report()));
     }
 
-    @SuppressWarnings("checkstyle:MagicNumber")
     @SneakyThrows(InterruptedException.class)
     CommandResult sendCommand(String command, Map<String, String> parameters,
                                       @NonNull BiConsumer<String, CommandResponse> responseCallback) {
         getLog().debug("Parameters: " + parameters);
-        HttpResponse<String> response;
+        var event = new DevModeEvents.AdminCommand(command);
+        CommandResponse response;
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            String formData = parameters.entrySet().stream()
-                    .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "="
-                            + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
-                    .collect(Collectors.joining("&"));
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("%s/command/%s".formatted(mojo.serverAminURL, command)))
-                    .header("Content-Type", "application/x-www-form-urlencoded")
-                    .header("X-requested-by", "cli")
-                    .POST(HttpRequest.BodyPublishers.ofString(formData))
-                    .build();
+            response = AdminResponseDecoder.decode(CLIENT.send(commandRequest(command, parameters),
+                    HttpResponse.BodyHandlers.ofInputStream()));
+        } catch (IOException e) {
+            event.complete(0);
+            return commandFailed(command, e, responseCallback);
+        }
+        event.complete(response.statusCode());
+        return commandCompleted(command, response, responseCallback);
+    }
+
+    /**
+     * Same as {@link #sendCommand(String, Map, BiConsumer)}, but does not block,
+     * so independent admin commands can be overlapped.
+     */
+    CompletableFuture<CommandResult> sendCommandAsync(String command, Map<String, String> parameters,
+                                                      @NonNull BiConsumer<String, CommandResponse> responseCallback) {
+        getLog().debug("Parameters: " + parameters);
+        var event = new DevModeEvents.AdminCommand(command);
+        return CLIENT.sendAsync(commandRequest(command, parameters), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(Deployer::decode)
+                .whenComplete((response, e) -> event.complete(e == null ? response.statusCode() : 0))
+                .handle((response, e) -> e == null ? commandCompleted(command, response, responseCallback)
+                        : commandFailed(command, unwrap(e), responseCallback));
+    }
 
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    private HttpRequest commandRequest(String command, Map<String, String> parameters) {
+        String formData = parameters.entrySet().stream()
+                .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        return HttpRequest.newBuilder()
+                .uri(URI.create("%s/command/%s".formatted(mojo.serverAminURL, command)))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("X-requested-by", "cli")
+                .POST(HttpRequest.BodyPublishers.ofString(formData))
+                .build();
+    }
+
+    private static CommandResponse decode(HttpResponse<InputStream> response) {
+        try {
+            return AdminResponseDecoder.decode(response);
         } catch (IOException e) {
-            responseCallback.accept(command, new CommandResponse(0, e.getMessage()));
-            return e instanceof ConnectException ? CommandResult.NO_CONNECTION : CommandResult.ERROR;
+            throw new UncheckedIOException(e);
         }
-        responseCallback.accept(command, new CommandResponse(response.statusCode(), response.body()));
-        return response.statusCode() == 200 ? CommandResult.SUCCESS : CommandResult.ERROR;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        return cause instanceof UncheckedIOException ? cause.getCause() : cause;
+    }
+
+    private static CommandResult commandCompleted(String command, CommandResponse response,
+                                                  BiConsumer<String, CommandResponse> responseCallback) {
+        responseCallback.accept(command, response);
+        return response.isSuccess() ? CommandResult.SUCCESS : CommandResult.ERROR;
+    }
+
+    private static CommandResult commandFailed(String command, Throwable e,
+                                               BiConsumer<String, CommandResponse> responseCallback) {
+        responseCallback.accept(command, new CommandResponse(0, null, e.getMessage()));
+        return e instanceof ConnectException ? CommandResult.NO_CONNECTION : CommandResult.ERROR;
     }
 
     @SneakyThrows(InterruptedException.class)
     @SuppressWarnings("checkstyle:MagicNumber")
     boolean pingWebsite(String applicationUrl) {
+        var event = new DevModeEvents.PingWebsite();
+        event.begin();
+        event.url = applicationUrl;
         HttpResponse<Void> response;
         try {
-            HttpClient client = HttpClient.newHttpClient();
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(applicationUrl))
                     .GET()
                     .build();
-            response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
         } catch (IOException e) {
+            event.commit();
             return false;
         }
-        return response.statusCode() != 404 && response.statusCode() != 500;
+        event.available = response.statusCode() != 404 && response.statusCode() != 500;
+        event.commit();
+        return event.available;
+    }
+
+    public CommandResult sendReloadCommand(String baseURL, String applicationName, ReloadStatus status,
+            @NonNull BiConsumer<String, CommandResponse> responseCallback) {
+        return sendReloadCommand(baseURL, applicationName, status, List.of(), List.of(), responseCallback);
     }
 
+    /**
+     * @param assets paths of changed static assets relative to the context root, for {@link ReloadStatus#RELOAD_ASSETS}
+     * @param views IDs of the affected views, only browsers showing them are reloaded, all if empty
+     */
     @SuppressWarnings("checkstyle:MagicNumber")
     @SneakyThrows({IOException.class, InterruptedException.class})
     public CommandResult sendReloadCommand(String baseURL, String applicationName, ReloadStatus status,
-            @NonNull BiConsumer<String, CommandResponse> responseCallback) {
+            List<String> assets, List<String> views, @NonNull BiConsumer<String, CommandResponse> responseCallback) {
+        var event = new DevModeEvents.Reload();
+        event.begin();
+        event.application = applicationName;
+        event.status = status.getDescription();
         HttpResponse<Void> response;
         try {
-            HttpClient client = HttpClient.newHttpClient();
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("%s/%s/reload/%s?status=%s".formatted(baseURL,
-                            FLOWLOGIX_LIVERELOAD, applicationName, status.getDescription())))
+                    .uri(URI.create("%s/%s/reload/%s?status=%s%s".formatted(baseURL,
+                            FLOWLOGIX_LIVERELOAD, applicationName, status.getDescription(),
+                            queryParameters("asset", assets) + queryParameters("view", views))))
                     .POST(HttpRequest.BodyPublishers.noBody())
                     .build();
-            response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
         } catch (ConnectException e) {
+            event.commit();
             responseCallback.accept("reload", null);
             return CommandResult.NO_CONNECTION;
         }
-        responseCallback.accept("reload", new CommandResponse(response.statusCode(), null));
+        event.statusCode = response.statusCode();
+        event.commit();
+        responseCallback.accept("reload", new CommandResponse(response.statusCode(), null, null));
         return response.statusCode() == 200 ? CommandResult.SUCCESS : CommandResult.ERROR;
     }
 
-    @SuppressWarnings("checkstyle:MagicNumber")
+    private static String queryParameters(String name, List<String> values) {
+        return values.stream().map(value -> "&%s=%s".formatted(name, URLEncoder.encode(value, StandardCharsets.UTF_8)))
+                .collect(Collectors.joining());
+    }
+
     void printResponse(String command, CommandResponse response) {
         if (response == null) {
             getLog().warn("Failed to connect to server at %s. Is it running?"
                     .formatted(mojo.serverAminURL));
             return;
         }
-        if (response.statusCode() != 200 && response.statusCode() != 0) {
+        if (response.statusCode() != 0 && !response.isSuccess()) {
             getLog().error("Command %s failed with response code %d".formatted(command, response.statusCode()));
-            getLog().error("Response body: %s".formatted(response.body()));
+            getLog().error("Response: %s".formatted(response.body()));
         }
     }
 }
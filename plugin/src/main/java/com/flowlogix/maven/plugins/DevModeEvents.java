@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Flight Recorder events for each phase between saving a file and the browser reloading,
+ * i.e. {@code MAVEN_OPTS=-XX:StartFlightRecording=filename=dev.jfr mvn server:dev}
+ * and {@code jfr print --categories "Container Deploy" dev.jfr}.
+ */
+@UtilityClass
+class DevModeEvents {
+    private static final String CATEGORY = "Container Deploy";
+
+    @Name("com.flowlogix.maven.plugins.FileChange")
+    @Label("File Change")
+    @Description("Changes reported by the watcher, before debouncing")
+    @Category({CATEGORY, "Watcher"})
+    static class FileChange extends Event {
+        @Label("Files")
+        int files;
+
+        @Label("Unchanged Content")
+        int unchangedContent;
+    }
+
+    @Name("com.flowlogix.maven.plugins.DebounceFired")
+    @Label("Debounce Fired")
+    @Category({CATEGORY, "Watcher"})
+    static class DebounceFired extends Event {
+        @Label("Files")
+        int files;
+
+        @Label("Window")
+        @Timespan(Timespan.MILLISECONDS)
+        long window;
+    }
+
+    @Name("com.flowlogix.maven.plugins.Compile")
+    @Label("Compile")
+    @Category({CATEGORY, "Build"})
+    static class Compile extends Event {
+        @Label("Incremental")
+        boolean incremental;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.flowlogix.maven.plugins.ExplodedWar")
+    @Label("Exploded WAR")
+    @Description("Full exploded WAR build by maven-war-plugin")
+    @Category({CATEGORY, "Build"})
+    static class ExplodedWar extends Event {
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.flowlogix.maven.plugins.ChangeStage")
+    @Label("Change Stage")
+    @Description("Stage of processing a batch of changes")
+    @Category({CATEGORY, "Pipeline"})
+    static class ChangeStage extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Files")
+        int files;
+    }
+
+    @Name("com.flowlogix.maven.plugins.AdminCommand")
+    @Label("Admin Command")
+    @Category({CATEGORY, "Server"})
+    static class AdminCommand extends Event {
+        @Label("Command")
+        String command;
+
+        @Label("Status Code")
+        int statusCode;
+
+        AdminCommand(String command) {
+            this.command = command;
+            begin();
+        }
+
+        void complete(int status) {
+            this.statusCode = status;
+            commit();
+        }
+    }
+
+    @Name("com.flowlogix.maven.plugins.Reload")
+    @Label("Browser Reload")
+    @Description("Round trip of the reload request to the LiveReload helper")
+    @Category({CATEGORY, "Server"})
+    static class Reload extends Event {
+        @Label("Application")
+        String application;
+
+        @Label("Reload Status")
+        String status;
+
+        @Label("Status Code")
+        int statusCode;
+    }
+
+    @Name("com.flowlogix.maven.plugins.PingWebsite")
+    @Label("Ping Website")
+    @Category({CATEGORY, "Server"})
+    static class PingWebsite extends Event {
+        @Label("URL")
+        String url;
+
+        @Label("Available")
+        boolean available;
+    }
+}
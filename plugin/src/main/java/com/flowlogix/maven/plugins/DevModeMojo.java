@@ -18,22 +18,33 @@
  */
 package com.flowlogix.maven.plugins;
 
+import com.flowlogix.maven.plugins.AdminCommandQueue.AppState;
 import com.flowlogix.maven.plugins.Deployer.CommandResult;
+import com.flowlogix.maven.plugins.Deployer.ServerLocations;
 import com.flowlogix.plugins.common.ReloadStatus;
+import lombok.Cleanup;
 import lombok.SneakyThrows;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.jspecify.annotations.Nullable;
 import java.awt.Desktop;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import static com.flowlogix.maven.plugins.Deployer.DEFAULT;
 import static com.flowlogix.maven.plugins.Deployer.FLOWLOGIX_LIVERELOAD;
 import static java.util.function.Predicate.not;
@@ -55,16 +66,86 @@ public class DevModeMojo extends CommonDevMojo {
     private static final Set<String> IGNORED_FILE_SUFFIXES = Set.of(
             ".swp", "~", ".tmp"
     );
+    /**
+     * Assets the browser can replace without reloading the page.
+     */
+    private static final Set<String> STATIC_ASSET_SUFFIXES = Set.of(
+            ".css", ".js", ".mjs", ".png", ".jpg", ".jpeg", ".gif", ".svg", ".webp", ".ico",
+            ".woff", ".woff2", ".ttf"
+    );
 
     protected boolean openBrowser = true;
     protected boolean deploy = true;
+    private final IncrementalCompiler incrementalCompiler = new IncrementalCompiler(this);
+    private final HotSwapper hotSwapper = new HotSwapper(this);
+    private final FaceletsGraph faceletsGraph = new FaceletsGraph();
+    private volatile @Nullable ServerLogTailer serverLog;
+    private volatile boolean helperDeployed;
 
     @Parameter(property = "livereload-helper-version", defaultValue = "1.0")
     String livereloadHelperVersion;
 
+    /**
+     * Whether to replace changed static assets in the browser without reloading the page. Requires a LiveReload
+     * helper and browser client that support it, the page is reloaded when the helper rejects the command.
+     */
+    @Parameter(property = "livereload-assets", defaultValue = "false")
+    boolean livereloadAssets;
+
     @Parameter(property = "watcher-delay", defaultValue = "50")
     Integer watcherDelay;
 
+    /**
+     * Maximum time in milliseconds between the first file change and processing the changes,
+     * no matter how long changes keep arriving.
+     */
+    @Parameter(property = "watcher-max-latency", defaultValue = "500")
+    int watcherMaxLatency;
+
+    /**
+     * How file changes are detected, NATIVE (file system notifications) or POLLING,
+     * for file systems that do not deliver notifications, i.e. some container bind mounts.
+     */
+    @Parameter(property = "watcher-backend", defaultValue = "NATIVE")
+    Watcher.Backend watcherBackend;
+
+    /**
+     * Interval in milliseconds between scans with the POLLING backend.
+     */
+    @Parameter(property = "watcher-poll-interval", defaultValue = "1000")
+    int watcherPollInterval;
+
+    /**
+     * Whether to compile changed Java sources in-process and incrementally, instead of running maven-compiler-plugin.
+     */
+    @Parameter(property = "incremental-compile", defaultValue = "true")
+    boolean incrementalCompile;
+
+    /**
+     * Whether to redefine classes in the running server when only method bodies change,
+     * instead of disabling and enabling the application. Requires the server to be started in debug mode.
+     */
+    @Parameter(property = "hotswap", defaultValue = "false")
+    boolean hotswap;
+
+    /**
+     * Server JVM debug (JDWP) port used for hot swap.
+     */
+    @Parameter(property = "hotswap-port", defaultValue = "9009")
+    int hotswapPort;
+
+    /**
+     * How long to wait for the application to become available before opening the browser, in seconds.
+     */
+    @Parameter(property = "deploy-timeout", defaultValue = "30")
+    int deployTimeout;
+
+    /**
+     * Log how long each stage of processing a change took.
+     */
+    @Parameter(property = "timing-summary", defaultValue = "false")
+    boolean timingSummary;
+
     @Parameter(property = "additionalRepositories", defaultValue = "")
     List<String> additionalRepositories;
 
@@ -82,37 +163,135 @@ public class DevModeMojo extends CommonDevMojo {
             getLog().info("Exploded WAR directory: " + getExplodedWarDir());
         }
 
-        if (deploy) {
+        if (deploy && !attachToSession()) {
             enableOrDeploy();
         }
-        watcher.watch(getSrcMainDir(), this::onChange, watcherDelay);
+        try (var pipeline = new ChangePipeline(getLog(), changeStages(), timingSummary)) {
+            watcher.watch(getSrcMainDir(), pipeline::submit,
+                    new Watcher.Config(watcherDelay, watcherMaxLatency, watcherBackend, watcherPollInterval));
+        } finally {
+            Optional.ofNullable(serverLog).ifPresent(ServerLogTailer::close);
+        }
     }
 
+    /**
+     * Starts the server in parallel with building the exploded WAR. Mojos share the project, which is not
+     * thread-safe, and execute one after the other on this thread. The server is extracted and the domain
+     * started on another thread without mojos, from configuration read from the project beforehand.
+     * When that configuration is not understood, the mojos are executed after the build instead.
+     */
     private void enableOrDeploy() throws IOException {
-        var result = deployer.sendEnableCommand((a, b) -> { });
-        if (result == CommandResult.NO_CONNECTION) {
-            extractAppServer();
+        var extracted = CompletableFuture.completedFuture(true);
+        var started = CompletableFuture.completedFuture(true);
+        @Cleanup("shutdown") ExecutorService serverStarter = Executors.newSingleThreadExecutor();
+        if (!deployer.pingServer()) {
+            serverLocationsCache.invalidate();
+            commandQueue.reset();
+            var extraction = serverExtraction.configuration();
+            var command = domainStart.command();
+            extracted = CompletableFuture.supplyAsync(() -> extractCachedAppServer(extraction), serverStarter);
+            started = extracted.thenApplyAsync(success -> success && command != null
+                    && startDomain(extraction, command), serverStarter);
+        }
+        if (!getExplodedWarDir().toFile().exists()) {
+            compileSources();
+            explodedWar();
+        }
+        if (!extracted.join()) {
+            unpackAppServer();
+        }
+        if (!started.join()) {
             startAppServer();
-            result = deployer.sendEnableCommand((a, b) -> { });
         }
+        var serverLocations = deployer.serverLocationsAsync();
+        serverLog = ServerLogTailer.follow(serverLocations.join());
+        // lines logged before a waiter is registered are not matched
+        var loaded = Optional.ofNullable(serverLog).map(log -> log.await(
+                ServerLogTailer.deploymentComplete(project.getBuild().getFinalName()))).orElse(null);
+        var result = deployer.sendEnableCommand((a, b) -> { });
         if (result == CommandResult.ERROR) {
-            if (!getExplodedWarDir().toFile().exists()) {
-                compileSources();
-                explodedWar();
-            }
-            deployer.sendDeployCommand(deployer::printResponse, null, 0);
+            startDeployCycle();
+            result = deployer.sendDeployCommand(deployer::printResponse, null, 0);
+            drainServerLog();
         }
 
-        displayInfo();
+        displayInfo(serverLocations);
         if (openBrowser) {
-            ForkJoinPool.commonPool().execute(this::openBrowser);
+            ForkJoinPool.commonPool().execute(() -> openBrowser(loaded));
         }
-        ForkJoinPool.commonPool().execute(this::deployLiveReloadHelper);
+        CommandResult deployed = result;
+        CompletableFuture.supplyAsync(this::deployLiveReloadHelper).thenAccept(helper -> {
+            helperDeployed = helper;
+            saveSession(deployed);
+        });
     }
 
-    private void openBrowser() {
-        @SuppressWarnings("checkstyle:MagicNumber")
-        boolean websiteDeployed = IntStream.range(0, 30).anyMatch(this::pingWebsite);
+    private boolean startDomain(ServerExtraction.Configuration extraction, DomainStart.Command command) {
+        appCds.configure(appCdsEnabled, () -> serverExtraction.distributions(extraction), command.arguments());
+        return domainStart.start(command);
+    }
+
+    /**
+     * Attaches to the application left running by the previous dev mode session, when the server process,
+     * the exploded WAR and the LiveReload helper are still the same. The server process is identified
+     * by the PID the server reports, no command changing the application is sent.
+     *
+     * @return false if the application has to be enabled or deployed
+     */
+    private boolean attachToSession() {
+        var previous = devSession.load();
+        if (previous == null || !getExplodedWarDir().toFile().isDirectory()) {
+            return false;
+        }
+        var fetched = deployer.fetchServerLocationsAsync();
+        long fingerprint = warSync.fingerprint();
+        ServerLocations locations = fetched.join();
+        if (locations == null) {
+            return false;
+        }
+        if (!previous.equals(currentSession(locations, fingerprint))) {
+            getLog().debug("Server or application changed since the previous dev session");
+            return false;
+        }
+        commandQueue.assume(previous.application(), AppState.ENABLED, fingerprint);
+        helperDeployed = true;
+        getLog().info("Attached to %s left running by the previous dev session".formatted(previous.application()));
+        serverLog = ServerLogTailer.follow(locations);
+        displayInfo(CompletableFuture.completedFuture(locations));
+        if (openBrowser) {
+            ForkJoinPool.commonPool().execute(() -> openBrowser(null));
+        }
+        return true;
+    }
+
+    /**
+     * Records what is running on the server for the next dev mode session, or forgets it after a failure.
+     * The fingerprint is the one the command queue computed when it enabled the application.
+     */
+    private void saveSession(CommandResult result) {
+        OptionalLong fingerprint = commandQueue.enabledFingerprint(project.getBuild().getFinalName());
+        ServerLocations locations = result == CommandResult.SUCCESS && helperDeployed && fingerprint.isPresent()
+                ? deployer.serverLocations() : null;
+        if (locations == null) {
+            devSession.clear();
+        } else {
+            devSession.save(currentSession(locations, fingerprint.getAsLong()));
+        }
+    }
+
+    private DevSessionState.Session currentSession(ServerLocations locations, long fingerprint) {
+        return new DevSessionState.Session(serverAminURL, locations.properties().pid(),
+                project.getBuild().getFinalName(), fingerprint, livereloadHelperVersion);
+    }
+
+    /**
+     * @param loaded completes when the server logs that the application was loaded,
+     *               must be registered before the application is enabled or deployed
+     */
+    @SneakyThrows(InterruptedException.class)
+    private void openBrowser(@Nullable CompletableFuture<?> loaded) {
+        boolean websiteDeployed = ReadinessProbe.await(() -> deployer.pingWebsite(getAppURL()),
+                Duration.ofSeconds(deployTimeout), loaded);
         if (websiteDeployed) {
             try {
                 Desktop.getDesktop().browse(URI.create(getAppURL()));
@@ -120,21 +299,29 @@ public class DevModeMojo extends CommonDevMojo {
                 getLog().debug("Cannot open browser", e);
             }
         } else {
-            getLog().warn("Website not available after 30 seconds.");
+            getLog().warn("Website not available after %d seconds.".formatted(deployTimeout));
         }
     }
 
     protected void displayInfo() {
+        displayInfo(deployer.serverLocationsAsync());
+    }
+
+    private void displayInfo(CompletableFuture<ServerLocations> serverLocations) {
         getLog().info("Application URL at " + getAppURL());
         if (openBrowser) {
-            getLog().info("App Server at %s".formatted(deployer.serverLocations().properties().baseRoot()));
-            getLog().info("Domain at %s".formatted(deployer.serverLocations().properties().instanceRoot()));
-            getLog().info("Logging at %s/logs/server.log".formatted(deployer.serverLocations().properties().instanceRoot()));
-            getLog().info("Deps (optional) at %s/lib/warlibs/".formatted(deployer.serverLocations().properties().instanceRoot()));
+            var properties = serverLocations.join().properties();
+            getLog().info("App Server at %s".formatted(properties.baseRoot()));
+            getLog().info("Domain at %s".formatted(properties.instanceRoot()));
+            getLog().info("Logging at %s/logs/server.log".formatted(properties.instanceRoot()));
+            getLog().info("Deps (optional) at %s/lib/warlibs/".formatted(properties.instanceRoot()));
         }
     }
 
-    private void deployLiveReloadHelper() {
+    /**
+     * @return true if the helper application is available
+     */
+    private boolean deployLiveReloadHelper() {
         if (!deployer.pingWebsite("%s/%s/ping".formatted(getBaseURL(), FLOWLOGIX_LIVERELOAD))) {
             getLog().info("Deploying LiveReload helper application");
             if (deployer.sendCommand("deploy-remote-archive", Map.of(
@@ -146,51 +333,158 @@ public class DevModeMojo extends CommonDevMojo {
                             .formatted("com.flowlogix.plugins", "live-reload",
                                     livereloadHelperVersion)), deployer::printResponse) == CommandResult.ERROR) {
                 getLog().warn("LiveReload helper deployment failed");
+                return false;
             }
         }
+        return true;
     }
 
-    @SneakyThrows(InterruptedException.class)
-    @SuppressWarnings("checkstyle:MagicNumber")
-    private boolean pingWebsite(int attempt) {
-        boolean result = deployer.pingWebsite(getAppURL());
-        if (!result) {
-            getLog().debug("Website not available yet, waiting...");
-            Thread.sleep(1000);
+    private List<ChangePipeline.Stage> changeStages() {
+        return List.of(new ChangePipeline.Stage("classify", this::classify, true),
+                new ChangePipeline.Stage("compile", this::compile, true),
+                new ChangePipeline.Stage("sync", this::synchronize, true),
+                new ChangePipeline.Stage("redeploy", this::redeploy, true),
+                new ChangePipeline.Stage("notify", this::notifyBrowser, false));
+    }
+
+    private boolean classify(ChangePipeline.Batch batch) {
+        getLog().debug("onChange: " + batch.files);
+        batch.files = batch.files.stream().filter(not(this::isIgnoredFile)).collect(Collectors.toSet());
+        batch.codeChanged = batch.files.stream().anyMatch(this::isSourceCode);
+        batch.assets = batch.codeChanged || !livereloadAssets ? null : staticAssets(batch.files);
+        batch.views = batch.codeChanged || batch.assets != null ? null : affectedViews(batch.files);
+        return !batch.files.isEmpty();
+    }
+
+    /**
+     * @return paths of the assets relative to the context root, or null if any of the files is not a static asset
+     */
+    private @Nullable List<String> staticAssets(Set<Path> files) {
+        List<String> assets = new ArrayList<>();
+        for (Path file : files) {
+            String webPath = warSync.webPath(file);
+            if (webPath == null || !Files.isRegularFile(file)
+                    || STATIC_ASSET_SUFFIXES.stream().noneMatch(webPath.toLowerCase()::endsWith)) {
+                return null;
+            }
+            assets.add(webPath);
         }
-        return result;
+        return assets;
     }
 
-    private void onChange(Set<Path> modifiedFiles) {
-        getLog().debug("onChange: " + modifiedFiles);
-        var filteredFiles = modifiedFiles.stream().filter(not(this::isIgnoredFile))
-                .collect(Collectors.toSet());
-        boolean codeChanged = filteredFiles.stream().anyMatch(this::isSourceCode);
-        boolean compilationSucceeded = codeChanged && compileSources();
-        if (filteredFiles.isEmpty()) {
-            return;
+    private @Nullable List<String> affectedViews(Set<Path> files) {
+        Path webappDir = warSync.webappDirectory();
+        return webappDir == null ? null : faceletsGraph.affectedViews(webappDir, files);
+    }
+
+    private boolean compile(ChangePipeline.Batch batch) {
+        if (batch.codeChanged) {
+            batch.compilation = compile(batch.files).including(batch.previousClassFiles);
         }
-        explodedWar();
-        if (codeChanged) {
-            if (!compilationSucceeded) {
-                getLog().warn("Compilation failed, sending error command for " + project.getBuild().getFinalName());
-                if (deployer.sendReloadCommand(getBaseURL(), project.getBuild().getFinalName(), ReloadStatus.ERROR,
-                        deployer::printResponse) == CommandResult.ERROR) {
-                    getLog().warn("Website Error Handler failed");
-                }
-                return;
-            }
-            getLog().info("Reloading " + project.getBuild().getFinalName());
-            if (deployer.sendDisableCommand(deployer::printResponse) == CommandResult.ERROR) {
-                deployer.sendDeployCommand(deployer::printResponse, null, 0);
-            } else {
-                deployer.sendEnableCommand(deployer::printResponse);
-            }
+        return true;
+    }
+
+    private boolean synchronize(ChangePipeline.Batch batch) {
+        if (!warSync.synchronize(batch.files) || (batch.codeChanged && !synchronizeClasses(batch.compilation))) {
+            explodedWar();
+        }
+        return true;
+    }
+
+    private boolean redeploy(ChangePipeline.Batch batch) {
+        if (!batch.codeChanged || !batch.compilation.success()) {
+            return true;
+        }
+        getLog().info("Reloading " + project.getBuild().getFinalName());
+        if (hotSwap(batch.files, batch.compilation)) {
+            getLog().info("Hot swapped classes of " + project.getBuild().getFinalName());
+            // the running application has the new classes, a redeploy of the same files would change nothing
+            commandQueue.assume(project.getBuild().getFinalName(), AppState.ENABLED, warSync.fingerprint());
+            saveSession(CommandResult.SUCCESS);
+        } else {
+            devSession.clear();
+            startDeployCycle();
+            saveSession(deployer.sendRedeployCommands(deployer::printResponse));
+            drainServerLog();
+        }
+        return true;
+    }
+
+    /**
+     * Reports warnings and errors the server logs from now on, until the next deploy cycle.
+     */
+    private void startDeployCycle() {
+        Optional.ofNullable(serverLog).ifPresent(log -> log.startCycle(this::reportServerLog));
+    }
+
+    private void drainServerLog() {
+        Optional.ofNullable(serverLog).ifPresent(ServerLogTailer::drain);
+    }
+
+    private void reportServerLog(ServerLogTailer.LogRecord logRecord) {
+        if (logRecord.isSevere()) {
+            getLog().error("Server: " + logRecord.message());
+        } else {
+            getLog().warn("Server: " + logRecord.message());
         }
-        if (deployer.sendReloadCommand(getBaseURL(), project.getBuild().getFinalName(), ReloadStatus.RELOAD,
-                deployer::printResponse) == CommandResult.ERROR) {
+    }
+
+    private boolean notifyBrowser(ChangePipeline.Batch batch) {
+        if (batch.codeChanged && !batch.compilation.success()) {
+            getLog().warn("Compilation failed, sending error command for " + project.getBuild().getFinalName());
+            if (deployer.sendReloadCommand(getBaseURL(), project.getBuild().getFinalName(), ReloadStatus.ERROR,
+                    deployer::printResponse) == CommandResult.ERROR) {
+                getLog().warn("Website Error Handler failed");
+            }
+        } else if (batch.views != null && batch.views.isEmpty()) {
+            getLog().debug("Changed views are not shown by any page, no reload sent");
+        } else if (!reloadAssets(batch) && deployer.sendReloadCommand(getBaseURL(),
+                project.getBuild().getFinalName(), ReloadStatus.RELOAD, List.of(),
+                Optional.ofNullable(batch.views).orElse(List.of()), deployer::printResponse) == CommandResult.ERROR) {
             getLog().warn("Website Reload failed");
         }
+        return true;
+    }
+
+    /**
+     * @return false if the page has to be reloaded, i.e. not only assets changed or the helper
+     *         does not support asset reloads
+     */
+    private boolean reloadAssets(ChangePipeline.Batch batch) {
+        if (batch.assets == null || batch.assets.isEmpty()) {
+            return false;
+        }
+        if (deployer.sendReloadCommand(getBaseURL(), project.getBuild().getFinalName(), ReloadStatus.RELOAD_ASSETS,
+                batch.assets, List.of(), (command, response) -> { }) == CommandResult.ERROR) {
+            getLog().debug("Asset reload not supported by the LiveReload helper, reloading the page");
+            return false;
+        }
+        return true;
+    }
+
+    private IncrementalCompiler.Result compile(Set<Path> modifiedFiles) {
+        var event = new DevModeEvents.Compile();
+        event.begin();
+        IncrementalCompiler.Result result = incrementalCompile ? incrementalCompiler.compile(modifiedFiles) : null;
+        if (result == null) {
+            return new IncrementalCompiler.Result(compileSources(), null, true);
+        }
+        event.incremental = true;
+        event.success = result.success();
+        event.commit();
+        return result;
+    }
+
+    private boolean hotSwap(Set<Path> modifiedFiles, IncrementalCompiler.Result compilation) {
+        return hotswap && !compilation.structural() && compilation.classFiles() != null
+                && !compilation.classFiles().isEmpty()
+                && modifiedFiles.stream().filter(this::isSourceCode).allMatch(path -> path.toString().endsWith(".java"))
+                && hotSwapper.redefine(compilation.classFiles(), hotswapPort);
+    }
+
+    private boolean synchronizeClasses(IncrementalCompiler.Result compilation) {
+        return compilation.classFiles() != null ? warSync.synchronize(compilation.classFiles())
+                : warSync.synchronizeClasses();
     }
 
     private boolean isSourceCode(Path path) {
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import jakarta.json.bind.JsonbException;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+import org.jspecify.annotations.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static com.flowlogix.maven.plugins.Deployer.JSONB;
+
+/**
+ * State of the dev mode session, persisted under {@code target/}.
+ * When dev mode is started again while the server still runs the application as it was left,
+ * the new session attaches to it instead of enabling or deploying anything.
+ */
+@RequiredArgsConstructor
+class DevSessionState {
+    private static final String STATE_FILE = "dev-session.json";
+
+    /**
+     * What the previous session left running.
+     *
+     * @param adminURL administration URL of the server
+     * @param pid process ID of the server
+     * @param application name of the deployed application
+     * @param fingerprint {@link ExplodedWarSync#fingerprint() fingerprint} of the deployed exploded WAR
+     * @param helperVersion version of the deployed LiveReload helper application
+     */
+    public record Session(String adminURL, String pid, String application, long fingerprint, String helperVersion) { }
+
+    @Delegate
+    private final CommonDevMojo mojo;
+
+    /**
+     * @return session left by a previous dev mode invocation, or null if there is none
+     */
+    @Nullable Session load() {
+        if (Files.notExists(stateFile())) {
+            return null;
+        }
+        try {
+            return JSONB.fromJson(Files.readString(stateFile()), Session.class);
+        } catch (IOException | JsonbException e) {
+            getLog().debug("Cannot read dev session state", e);
+            return null;
+        }
+    }
+
+    void save(Session session) {
+        try {
+            Files.createDirectories(getStateDir());
+            Files.writeString(stateFile(), JSONB.toJson(session));
+        } catch (IOException | JsonbException e) {
+            getLog().debug("Cannot save dev session state", e);
+        }
+    }
+
+    /**
+     * Forgets the session, i.e. after a failed deployment, or when a goal undeploys the application
+     * or stops the server. Goals executed without a project have no session to forget.
+     */
+    void clear() {
+        if (mojo.project == null || mojo.project.getFile() == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(stateFile());
+        } catch (IOException e) {
+            getLog().debug("Cannot delete dev session state", e);
+        }
+    }
+
+    private Path stateFile() {
+        return getStateDir().resolve(STATE_FILE);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.experimental.Delegate;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.jspecify.annotations.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Starts the domain with the command of the {@code start-domain} execution of {@code exec-maven-plugin},
+ * as an external process instead of executing the mojo. The command is read from the project beforehand,
+ * so the domain can start on another thread while mojos of the project execute.
+ */
+@RequiredArgsConstructor
+class DomainStart {
+    static final String EXEC_MAVEN_PLUGIN = "org.codehaus.mojo:exec-maven-plugin";
+    static final String EXECUTION = "start-domain";
+    private static final Set<String> SUPPORTED_OPTIONS = Set.of("skip", "executable", "arguments",
+            "workingDirectory");
+
+    /**
+     * Command of the {@code start-domain} execution.
+     *
+     * @param command executable followed by the arguments
+     */
+    record Command(List<String> command, Path workingDirectory) {
+        List<String> arguments() {
+            return command.subList(1, command.size());
+        }
+    }
+
+    @Delegate
+    private final CommonDevMojo mojo;
+
+    /**
+     * @return command read from the project, or null if the configuration is not understood,
+     *         and the exec goal should be executed instead
+     */
+    @Nullable Command command() {
+        Xpp3Dom configuration = configuration();
+        if (configuration == null || value(configuration, "executable") == null) {
+            return null;
+        }
+        var unsupported = Arrays.stream(configuration.getChildren()).map(Xpp3Dom::getName)
+                .filter(Predicate.not(SUPPORTED_OPTIONS::contains)).toList();
+        List<String> arguments = arguments(configuration);
+        if (!unsupported.isEmpty() || arguments == null) {
+            getLog().debug("Starting the domain with exec-maven-plugin, options not supported: " + unsupported);
+            return null;
+        }
+        Path basedir = mojo.project.getBasedir().toPath();
+        Path workingDirectory = Optional.ofNullable(value(configuration, "workingDirectory"))
+                .map(basedir::resolve).orElse(basedir);
+        String executable = value(configuration, "executable");
+        // relative to the working directory, as with exec-maven-plugin, otherwise found on the PATH
+        if (Files.isRegularFile(workingDirectory.resolve(executable))) {
+            executable = workingDirectory.resolve(executable).toAbsolutePath().toString();
+        }
+        List<String> command = new ArrayList<>(arguments.size() + 1);
+        command.add(executable);
+        command.addAll(arguments);
+        return new Command(List.copyOf(command), workingDirectory);
+    }
+
+    /**
+     * @return arguments of the {@code start-domain} execution, empty if there are none
+     */
+    List<String> arguments() {
+        Xpp3Dom configuration = configuration();
+        return Optional.ofNullable(configuration == null ? null : arguments(configuration)).orElse(List.of());
+    }
+
+    /**
+     * Runs the command without accessing the project, its output goes to the console.
+     *
+     * @return true if the command succeeded
+     */
+    @SneakyThrows(InterruptedException.class)
+    boolean start(Command command) {
+        try {
+            int exitCode = new ProcessBuilder(command.command()).directory(command.workingDirectory().toFile())
+                    .inheritIO().start().waitFor();
+            if (exitCode != 0) {
+                getLog().warn("%s exited with %d".formatted(command.command(), exitCode));
+            }
+            return exitCode == 0;
+        } catch (IOException e) {
+            getLog().warn("Cannot start the domain with " + command.command(), e);
+            return false;
+        }
+    }
+
+    private @Nullable Xpp3Dom configuration() {
+        Plugin plugin = mojo.project.getPlugin(EXEC_MAVEN_PLUGIN);
+        PluginExecution execution = plugin == null ? null : plugin.getExecutionsAsMap().get(EXECUTION);
+        return execution != null && execution.getConfiguration() instanceof Xpp3Dom configuration
+                ? configuration : null;
+    }
+
+    /**
+     * @return arguments, or null if there are other elements than plain arguments, i.e. a classpath
+     */
+    private static @Nullable List<String> arguments(Xpp3Dom configuration) {
+        Xpp3Dom arguments = configuration.getChild("arguments");
+        if (arguments == null) {
+            return List.of();
+        }
+        List<String> values = new ArrayList<>();
+        for (Xpp3Dom argument : arguments.getChildren()) {
+            if (!"argument".equals(argument.getName())) {
+                return null;
+            }
+            values.add(Optional.ofNullable(argument.getValue()).orElse(""));
+        }
+        return values;
+    }
+
+    private static @Nullable String value(Xpp3Dom configuration, String name) {
+        Xpp3Dom child = configuration.getChild(name);
+        return child == null || child.getValue() == null || child.getValue().isBlank() ? null : child.getValue().strip();
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+import org.apache.maven.model.Resource;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.jspecify.annotations.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
+import static com.flowlogix.maven.plugins.CommonDevMojo.ORG_APACHE_MAVEN_PLUGINS;
+
+/**
+ * Copies, replaces or deletes only the changed entries of the exploded WAR directory,
+ * instead of running maven-war-plugin:exploded for every change.
+ */
+@RequiredArgsConstructor
+class ExplodedWarSync {
+    private static final String WEB_INF_CLASSES = "WEB-INF/classes";
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    /**
+     * Source directory and its destinations within the exploded WAR (and target/classes for resources).
+     * Changes under roots that are not incremental (i.e. filtered resources) require a full war:exploded.
+     */
+    record Mapping(Path source, List<Path> destinations, boolean incremental) { }
+
+    @Delegate
+    private final CommonDevMojo mojo;
+
+    /**
+     * Synchronizes modified or deleted files from src/main/webapp, src/main/resources or target/classes
+     * into the exploded WAR directory. Files outside of these directories are ignored.
+     *
+     * @param modifiedFiles files that were modified, created or deleted
+     * @return false if the files could not be synchronized, and full war:exploded is required
+     */
+    boolean synchronize(Set<Path> modifiedFiles) {
+        if (!Files.isDirectory(getExplodedWarDir())) {
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        List<Mapping> mappings = mappings();
+        try {
+            for (Path path : modifiedFiles) {
+                var mapping = mappings.stream().filter(m -> path.startsWith(m.source())).findFirst();
+                if (mapping.isEmpty()) {
+                    continue;
+                }
+                if (!mapping.get().incremental()) {
+                    getLog().debug("Requires full exploded WAR: " + path);
+                    return false;
+                }
+                Path relativePath = mapping.get().source().relativize(path);
+                mapping.get().destinations().forEach(destination -> syncFile(path, destination.resolve(relativePath)));
+            }
+        } catch (UncheckedIOException e) {
+            getLog().debug("Incremental exploded WAR synchronization failed", e);
+            return false;
+        }
+        getLog().debug("Synchronized %d files to exploded WAR in %d ms"
+                .formatted(modifiedFiles.size(), System.currentTimeMillis() - startTime));
+        return true;
+    }
+
+    /**
+     * Synchronizes compiled classes from target/classes to WEB-INF/classes
+     * by comparing size and modification time, and removes classes that no longer exist.
+     *
+     * @return false if the classes could not be synchronized, and full war:exploded is required
+     */
+    boolean synchronizeClasses() {
+        Path classesDir = Paths.get(mojo.project.getBuild().getOutputDirectory());
+        Path destinationDir = getExplodedWarDir().resolve(WEB_INF_CLASSES);
+        if (!Files.isDirectory(getExplodedWarDir()) || !Files.isDirectory(classesDir)) {
+            return false;
+        }
+        try (Stream<Path> sources = Files.walk(classesDir);
+             Stream<Path> destinations = Files.exists(destinationDir) ? Files.walk(destinationDir) : Stream.empty()) {
+            List<Path> copied = sources.filter(Files::isRegularFile)
+                    .filter(path -> isStale(path, destinationDir.resolve(classesDir.relativize(path))))
+                    .collect(Collectors.toList());
+            copied.forEach(path -> syncFile(path, destinationDir.resolve(classesDir.relativize(path))));
+            List<Path> removed = destinations.filter(path -> path.toString().endsWith(CLASS_FILE_SUFFIX))
+                    .filter(path -> Files.notExists(classesDir.resolve(destinationDir.relativize(path))))
+                    .collect(Collectors.toList());
+            for (Path path : removed) {
+                Files.delete(path);
+            }
+            getLog().debug("Synchronized %d classes, removed %d from exploded WAR"
+                    .formatted(copied.size(), removed.size()));
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            getLog().debug("Incremental classes synchronization failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * Fingerprint of the files that require enabling the application again when they change:
+     * names and {@link FileIndex.Stamp stamps} (size and modification time) of the files in WEB-INF.
+     * Files are not read, rewriting a file with the same content changes the fingerprint.
+     *
+     * @return fingerprint, or a value that never repeats if the files can not be read
+     */
+    long fingerprint() {
+        Path webInf = getExplodedWarDir().resolve("WEB-INF");
+        Map<String, FileIndex.Stamp> stamps = new TreeMap<>();
+        try {
+            Files.walkFileTree(webInf, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        stamps.put(webInf.relativize(file).toString(), FileIndex.Stamp.of(attributes));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            var checksum = new CRC32C();
+            var buffer = ByteBuffer.allocate(2 * Long.BYTES);
+            stamps.forEach((file, stamp) -> {
+                checksum.update(file.getBytes(StandardCharsets.UTF_8));
+                checksum.update(buffer.clear().putLong(stamp.size()).putLong(stamp.modified()).flip());
+            });
+            return checksum.getValue();
+        } catch (IOException | UncheckedIOException e) {
+            getLog().debug("Cannot fingerprint exploded WAR", e);
+            return System.nanoTime();
+        }
+    }
+
+    /**
+     * @return web application source root, or null if it is not copied to the exploded WAR as is
+     */
+    @Nullable Path webappDirectory() {
+        Mapping webapp = webappMapping();
+        return webapp.incremental() ? webapp.source() : null;
+    }
+
+    /**
+     * Path of a web application file as served, relative to the context root.
+     *
+     * @return null if the file is not copied to the exploded WAR as is, or is not served
+     */
+    @Nullable String webPath(Path file) {
+        Mapping webapp = webappMapping();
+        if (!webapp.incremental() || !file.startsWith(webapp.source())) {
+            return null;
+        }
+        Path relativePath = webapp.source().relativize(file);
+        if (relativePath.startsWith("WEB-INF") || relativePath.startsWith("META-INF")) {
+            return null;
+        }
+        return StreamSupport.stream(relativePath.spliterator(), false).map(Path::toString)
+                .collect(Collectors.joining("/"));
+    }
+
+    private List<Mapping> mappings() {
+        var mappings = new ArrayList<Mapping>();
+        Path classesDir = Paths.get(mojo.project.getBuild().getOutputDirectory());
+        Path classesDestination = getExplodedWarDir().resolve(WEB_INF_CLASSES);
+        mappings.add(new Mapping(classesDir, List.of(classesDestination), true));
+        for (Resource resource : mojo.project.getBuild().getResources()) {
+            String targetPath = Optional.ofNullable(resource.getTargetPath()).orElse("");
+            // keep target/classes current, so the next classes synchronization does not revert the resource
+            mappings.add(new Mapping(Paths.get(resource.getDirectory()),
+                    List.of(classesDestination.resolve(targetPath), classesDir.resolve(targetPath)),
+                    !resource.isFiltering() && resource.getIncludes().isEmpty() && resource.getExcludes().isEmpty()));
+        }
+        mappings.add(webappMapping());
+        return mappings;
+    }
+
+    private Mapping webappMapping() {
+        Xpp3Dom warConfiguration = warPluginConfiguration();
+        Path webappDir = Optional.ofNullable(child(warConfiguration, "warSourceDirectory"))
+                .map(Paths::get).orElse(getSrcMainDir().resolve("webapp"));
+        return new Mapping(webappDir, List.of(getExplodedWarDir()),
+                child(warConfiguration, "webResources") == null
+                        && !Boolean.parseBoolean(child(warConfiguration, "filteringDeploymentDescriptors")));
+    }
+
+    private @Nullable Xpp3Dom warPluginConfiguration() {
+        return Optional.ofNullable(mojo.project.getPlugin("%s:maven-war-plugin".formatted(ORG_APACHE_MAVEN_PLUGINS)))
+                .map(plugin -> (Xpp3Dom) plugin.getConfiguration()).orElse(null);
+    }
+
+    private static @Nullable String child(@Nullable Xpp3Dom configuration, String name) {
+        if (configuration == null || configuration.getChild(name) == null) {
+            return null;
+        }
+        Xpp3Dom child = configuration.getChild(name);
+        return child.getChildCount() > 0 ? child.toString() : child.getValue();
+    }
+
+    private static boolean isStale(Path source, Path destination) {
+        try {
+            return Files.notExists(destination) || Files.size(source) != Files.size(destination)
+                    || !Files.getLastModifiedTime(source).equals(Files.getLastModifiedTime(destination));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void syncFile(Path source, Path destination) {
+        try {
+            if (Files.isRegularFile(source)) {
+                getLog().debug("Copying %s to %s".formatted(source, destination));
+                Files.createDirectories(destination.getParent());
+                Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.COPY_ATTRIBUTES);
+            } else if (Files.notExists(source) && Files.exists(destination)) {
+                getLog().debug("Deleting " + destination);
+                try (Stream<Path> paths = Files.walk(destination)) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                        Files.delete(path);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.jspecify.annotations.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Facelets files of the web application and the templates, includes and composite components they use.
+ * Finds the views affected by changed files, so only browsers showing those views are reloaded.
+ * <p>
+ * References are found textually, files are parsed again only when their stamp changes.
+ */
+class FaceletsGraph {
+    private static final String FACELETS_SUFFIX = ".xhtml";
+    private static final Set<String> NON_VIEW_DIRS = Set.of("/WEB-INF/", "/META-INF/", "/resources/");
+    private static final Pattern TEMPLATE_REFERENCE = Pattern.compile(
+            "<[\\w-]+:(?:include|decorate|composition)\\b[^>]*?\\s(?:src|template)\\s*=\\s*[\"']([^\"']*)[\"']");
+    private static final Pattern COMPOSITE_NAMESPACE = Pattern.compile(
+            "xmlns:([\\w-]+)\\s*=\\s*[\"'](?:jakarta\\.faces\\.composite|http://xmlns\\.jcp\\.org/jsf/composite"
+                    + "|http://java\\.sun\\.com/jsf/composite)/([^\"']+)[\"']");
+
+    /**
+     * References of a Facelets file.
+     *
+     * @param references '/'-separated paths of the files used, relative to the web application root
+     * @param dynamic whether the file uses templates or includes computed with EL, which may be any file
+     */
+    record Node(FileIndex.Stamp stamp, Set<String> references, boolean dynamic) { }
+
+    private final Map<String, Node> nodes = new HashMap<>();
+
+    /**
+     * Finds views that show any of the changed files, directly or through templates, includes
+     * and composite components.
+     *
+     * @param webappDir web application source root
+     * @param changedFiles changed or deleted files under {@code webappDir}
+     * @return paths of the affected views starting with '/', or null if the changes may affect any view
+     */
+    synchronized @Nullable List<String> affectedViews(Path webappDir, Set<Path> changedFiles) {
+        if (changedFiles.isEmpty() || !changedFiles.stream().allMatch(file -> file.startsWith(webappDir)
+                && file.getFileName().toString().endsWith(FACELETS_SUFFIX))) {
+            return null;
+        }
+        try {
+            refresh(webappDir);
+        } catch (IOException | UncheckedIOException e) {
+            return null;
+        }
+        Map<String, Set<String>> dependents = new HashMap<>();
+        nodes.forEach((path, node) -> node.references().forEach(reference ->
+                dependents.computeIfAbsent(reference, var -> new HashSet<>()).add(path)));
+        Set<String> affected = new HashSet<>();
+        Queue<String> queue = new ArrayDeque<>();
+        for (Path file : changedFiles) {
+            String path = webPath(webappDir, file);
+            if (!isView(path) && !dependents.containsKey(path)) {
+                // used in a way that is not known, i.e. through a tag library
+                return null;
+            }
+            queue.add(path);
+        }
+        while (!queue.isEmpty()) {
+            String path = queue.remove();
+            if (affected.add(path)) {
+                queue.addAll(dependents.getOrDefault(path, Set.of()));
+            }
+        }
+        nodes.forEach((path, node) -> {
+            if (node.dynamic()) {
+                affected.add(path);
+            }
+        });
+        return affected.stream().filter(FaceletsGraph::isView).sorted().toList();
+    }
+
+    private static Node parse(String webPath, FileIndex.Stamp stamp, String content) {
+        Set<String> references = new HashSet<>();
+        boolean dynamic = false;
+        Matcher template = TEMPLATE_REFERENCE.matcher(content);
+        while (template.find()) {
+            String reference = template.group(1);
+            if (reference.contains("#{") || reference.contains("${")) {
+                dynamic = true;
+            } else if (!reference.isBlank()) {
+                references.add(resolve(webPath, reference));
+            }
+        }
+        Matcher namespace = COMPOSITE_NAMESPACE.matcher(content);
+        while (namespace.find()) {
+            String library = namespace.group(2);
+            Matcher component = Pattern.compile("<" + Pattern.quote(namespace.group(1)) + ":([\\w-]+)")
+                    .matcher(content);
+            while (component.find()) {
+                references.add("/resources/%s/%s%s".formatted(library, component.group(1), FACELETS_SUFFIX));
+            }
+        }
+        return new Node(stamp, Set.copyOf(references), dynamic);
+    }
+
+    private void refresh(Path webappDir) throws IOException {
+        Set<String> existing = new HashSet<>();
+        try (Stream<Path> files = Files.walk(webappDir)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(FACELETS_SUFFIX))
+                    .filter(Files::isRegularFile)::iterator) {
+                String path = webPath(webappDir, file);
+                FileIndex.Stamp stamp = FileIndex.Stamp.of(file);
+                Node node = nodes.get(path);
+                if (stamp != null && (node == null || !node.stamp().equals(stamp))) {
+                    nodes.put(path, parse(path, stamp, Files.readString(file)));
+                }
+                existing.add(path);
+            }
+        }
+        nodes.keySet().retainAll(existing);
+    }
+
+    private static String resolve(String webPath, String reference) {
+        String path = reference.startsWith("/") ? reference
+                : webPath.substring(0, webPath.lastIndexOf('/') + 1) + reference;
+        return Path.of(path).normalize().toString().replace('\\', '/');
+    }
+
+    private static String webPath(Path webappDir, Path file) {
+        return StreamSupport.stream(webappDir.relativize(file).spliterator(), false).map(Path::toString)
+                .collect(Collectors.joining("/", "/", ""));
+    }
+
+    private static boolean isView(String path) {
+        return path.endsWith(FACELETS_SUFFIX) && NON_VIEW_DIRS.stream().noneMatch(path::startsWith);
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.jspecify.annotations.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import static java.util.function.Predicate.not;
+
+/**
+ * Modification time and size of every file in the watched tree.
+ * Used to find changes that were not reported by the watch service (overflow),
+ * or to find all changes when polling.
+ * <p>
+ * Also keeps content hashes, so files that were saved or touched without changing
+ * their content can be dropped. Hashes are persisted between dev mode sessions.
+ */
+class FileIndex {
+    private static final int FORMAT_VERSION = 1;
+
+    record Stamp(long modified, long size) {
+        static Stamp of(BasicFileAttributes attributes) {
+            return new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+        }
+
+        static @Nullable Stamp of(Path file) {
+            try {
+                return of(Files.readAttributes(file, BasicFileAttributes.class));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Content hash of a file, and its stamp at the time of hashing.
+     */
+    record Content(Stamp stamp, long hash) { }
+
+    private final Map<Path, Stamp> stamps = new ConcurrentHashMap<>();
+    private final Map<Path, Content> contents = new ConcurrentHashMap<>();
+
+    /**
+     * Rescans the directory tree and updates the index.
+     *
+     * @param directory directory to scan
+     * @return files that were created, modified or deleted since the last scan
+     */
+    Set<Path> scan(Path directory) throws IOException {
+        return scan(directory, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Rescans the directory down to the given depth and updates the index.
+     * Files further down are kept, unless their subdirectory at that depth is gone.
+     *
+     * @param directory directory to scan
+     * @param depth 1 to scan only the files directly in the directory
+     * @return files that were created, modified or deleted since the last scan
+     */
+    Set<Path> scan(Path directory, int depth) throws IOException {
+        Set<Path> changed = new HashSet<>();
+        Set<Path> existing = new HashSet<>();
+        var visitor = new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    existing.add(file);
+                    if (!Stamp.of(attributes).equals(stamps.put(file, Stamp.of(attributes)))) {
+                        changed.add(file);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        };
+        Files.walkFileTree(directory, Set.of(FileVisitOption.FOLLOW_LINKS), depth, visitor);
+        for (Iterator<Path> iterator = stamps.keySet().iterator(); iterator.hasNext();) {
+            Path path = iterator.next();
+            if (path.startsWith(directory) && !existing.contains(path) && isGone(directory, path, depth)) {
+                iterator.remove();
+                contents.remove(path);
+                changed.add(path);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Updates the index for a single file reported by the watch service.
+     *
+     * @return the file, and the indexed files under it when it was a deleted directory
+     */
+    Set<Path> update(Path file) {
+        try {
+            var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attributes.isRegularFile()) {
+                stamps.put(file, Stamp.of(attributes));
+            }
+            return Set.of(file);
+        } catch (IOException e) {
+            Set<Path> removed = stamps.keySet().stream().filter(path -> path.startsWith(file))
+                    .collect(Collectors.toCollection(HashSet::new));
+            removed.add(file);
+            stamps.keySet().removeAll(removed);
+            contents.keySet().removeAll(removed);
+            return removed;
+        }
+    }
+
+    int size() {
+        return stamps.size();
+    }
+
+    /**
+     * Hashes the file and compares it with the previous hash.
+     * Hashes taken after the file's last modification can not tell whether the modification
+     * changed the content, in that case the file is considered changed.
+     *
+     * @param file file reported as modified
+     * @return true if the file's content is the same as when it was hashed previously
+     */
+    boolean isContentUnchanged(Path file) {
+        Stamp stamp = Stamp.of(file);
+        if (stamp == null) {
+            contents.remove(file);
+            return false;
+        }
+        Content previous = contents.get(file);
+        Content current = hash(file, stamp);
+        if (current == null) {
+            contents.remove(file);
+            return false;
+        }
+        contents.put(file, current);
+        return previous != null && !previous.stamp().equals(stamp)
+                && previous.stamp().size() == stamp.size() && previous.hash() == current.hash();
+    }
+
+    /**
+     * Forgets the content hash, i.e. when the file changed while it was not watched.
+     */
+    void invalidate(Path file) {
+        contents.remove(file);
+    }
+
+    /**
+     * Hashes all indexed files which do not have a hash yet.
+     */
+    void hashAll() {
+        stamps.keySet().stream().filter(not(contents::containsKey)).forEach(file -> {
+            Stamp stamp = Stamp.of(file);
+            Content content = stamp == null ? null : hash(file, stamp);
+            if (content != null) {
+                contents.putIfAbsent(file, content);
+            }
+        });
+    }
+
+    /**
+     * Loads the index persisted by a previous dev mode session.
+     * Files changed since then should be {@link #invalidate(Path) invalidated}
+     * after the next {@link #scan(Path) scan}.
+     */
+    void load(Path indexFile, Path root) {
+        if (Files.notExists(indexFile)) {
+            return;
+        }
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            int count = input.readInt();
+            for (int entry = 0; entry < count; ++entry) {
+                Path file = root.resolve(input.readUTF());
+                var stamp = new Stamp(input.readLong(), input.readLong());
+                stamps.put(file, stamp);
+                contents.put(file, new Content(stamp, input.readLong()));
+            }
+        } catch (IOException e) {
+            stamps.clear();
+            contents.clear();
+        }
+    }
+
+    void save(Path indexFile, Path root) throws IOException {
+        Files.createDirectories(indexFile.getParent());
+        var entries = Map.copyOf(contents);
+        try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(entries.size());
+            for (var entry : entries.entrySet()) {
+                output.writeUTF(root.relativize(entry.getKey()).toString());
+                output.writeLong(entry.getValue().stamp().modified());
+                output.writeLong(entry.getValue().stamp().size());
+                output.writeLong(entry.getValue().hash());
+            }
+        }
+    }
+
+    private static @Nullable Content hash(Path file, Stamp stamp) {
+        try {
+            long hash = ContentHash.of(file);
+            // discard hashes of files that were modified while hashing
+            return stamp.equals(Stamp.of(file)) ? new Content(stamp, hash) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether an indexed file not found by a scan is gone, files below the scanned depth are gone
+     * only when their subdirectory at that depth is.
+     */
+    private static boolean isGone(Path directory, Path file, int depth) {
+        Path relativePath = directory.relativize(file);
+        return relativePath.getNameCount() <= depth
+                || !Files.isDirectory(directory.resolve(relativePath.subpath(0, depth)));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.sun.jdi.Bootstrap;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VMDisconnectedException;
+import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.connect.AttachingConnector;
+import com.sun.jdi.connect.IllegalConnectorArgumentsException;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Redefines changed classes in the running server JVM via the JDWP debug port (HotSwap),
+ * so method body changes do not require disabling and enabling the application.
+ * The server has to be started with debugging enabled, i.e. {@code asadmin start-domain --debug}.
+ * JDWP accepts a single debugger, so the plugin attaches only while redefining classes,
+ * and an IDE can use the debug port in between.
+ */
+@RequiredArgsConstructor
+class HotSwapper {
+    private static final String SOCKET_ATTACH = "com.sun.jdi.SocketAttach";
+
+    @Delegate
+    private final CommonDevMojo mojo;
+
+    /**
+     * Redefines the classes that are already loaded by the server.
+     *
+     * @param classFiles compiled class files, class files that no longer exist are ignored
+     * @param port JDWP debug port of the server
+     * @return true if all loaded classes were redefined successfully
+     */
+    boolean redefine(Set<Path> classFiles, int port) {
+        VirtualMachine vm;
+        try {
+            vm = attach(port);
+        } catch (IOException | IllegalConnectorArgumentsException e) {
+            getLog().warn(("Cannot attach to server JVM debug port %d for hot swap, reloading instead. The server "
+                    + "has to be started in debug mode, with no other debugger attached").formatted(port));
+            getLog().debug(e);
+            return false;
+        }
+        try {
+            if (!vm.canRedefineClasses()) {
+                getLog().debug("Server JVM does not support class redefinition");
+                return false;
+            }
+            Map<ReferenceType, byte[]> redefinitions = new HashMap<>();
+            for (Path classFile : classFiles) {
+                if (Files.exists(classFile)) {
+                    byte[] bytes = Files.readAllBytes(classFile);
+                    String className = ClassFileInfo.read(bytes).name().replace('/', '.');
+                    vm.classesByName(className).forEach(type -> redefinitions.put(type, bytes));
+                }
+            }
+            vm.redefineClasses(redefinitions);
+            getLog().debug("Redefined %d loaded classes".formatted(redefinitions.size()));
+            return true;
+        } catch (VMDisconnectedException e) {
+            getLog().debug("Server JVM disconnected", e);
+            return false;
+        } catch (IOException | RuntimeException | LinkageError e) {
+            getLog().debug("Class redefinition failed", e);
+            return false;
+        } finally {
+            dispose(vm);
+        }
+    }
+
+    private VirtualMachine attach(int port) throws IOException, IllegalConnectorArgumentsException {
+        AttachingConnector connector = Bootstrap.virtualMachineManager().attachingConnectors().stream()
+                .filter(attachingConnector -> SOCKET_ATTACH.equals(attachingConnector.name()))
+                .findFirst().orElseThrow(() -> new IOException("Socket attaching connector not available"));
+        var arguments = connector.defaultArguments();
+        arguments.get("hostname").setValue(URI.create(mojo.serverAminURL).getHost());
+        arguments.get("port").setValue(String.valueOf(port));
+        getLog().debug("Attaching to server JVM debug port %d for hot swap".formatted(port));
+        return connector.attach(arguments);
+    }
+
+    private void dispose(VirtualMachine vm) {
+        try {
+            vm.dispose();
+        } catch (VMDisconnectedException e) {
+            getLog().debug("Server JVM already disconnected", e);
+        }
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.jspecify.annotations.Nullable;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static com.flowlogix.maven.plugins.CommonDevMojo.ORG_APACHE_MAVEN_PLUGINS;
+
+/**
+ * In-process incremental Java compiler for dev mode.
+ * Keeps the compiler and its file manager (with opened classpath jars) warm between changes,
+ * and tracks which classes each source produces and which classes reference them.
+ * Changed sources are compiled first. When the shape of any of their classes changed, all sources
+ * depending on those classes, directly or transitively, are recompiled as well.
+ * <p>
+ * Constants inlined by javac do not leave references in the class files, so when a constant's value
+ * changes, or the previous shape of a class is not known, all sources are recompiled.
+ * <p>
+ * Class files are only replaced or deleted when the compilation succeeds, they are restored otherwise.
+ */
+@RequiredArgsConstructor
+class IncrementalCompiler {
+    private static final String JAVA_SUFFIX = ".java";
+    private static final String CLASS_SUFFIX = ".class";
+    private static final Set<String> OTHER_LANGUAGE_SRC_DIRS = Set.of("kotlin", "groovy", "scala", "clojure");
+
+    /**
+     * Result of the compilation.
+     *
+     * @param success whether compilation succeeded
+     * @param classFiles class files written or deleted, or null if they are not known
+     *                   because maven-compiler-plugin was used instead
+     * @param structural whether any existing class was removed or changed more than its method bodies
+     */
+    record Result(boolean success, @Nullable Set<Path> classFiles, boolean structural) {
+        /**
+         * @param otherClassFiles class files of an earlier compilation that were not synchronized yet,
+         *                        null if they are not known
+         * @return result reporting the class files of both compilations
+         */
+        Result including(@Nullable Set<Path> otherClassFiles) {
+            if (otherClassFiles != null && otherClassFiles.isEmpty()) {
+                return this;
+            }
+            Set<Path> allClassFiles = null;
+            if (classFiles != null && otherClassFiles != null) {
+                allClassFiles = new HashSet<>(classFiles);
+                allClassFiles.addAll(otherClassFiles);
+            }
+            // what the earlier compilation changed is not known, so classes can not be hot swapped
+            return new Result(success, allClassFiles, true);
+        }
+    }
+
+    @Delegate
+    private final CommonDevMojo mojo;
+    private final Map<Path, Set<String>> sourceClasses = new HashMap<>();
+    private final Map<String, Path> classSources = new HashMap<>();
+    private final Map<String, Set<String>> classReferences = new HashMap<>();
+    private final Map<String, Set<String>> classDependents = new HashMap<>();
+    private final Map<String, Integer> classShapes = new HashMap<>();
+    private final Map<String, Integer> classConstants = new HashMap<>();
+    private @Nullable JavaCompiler compiler;
+    private @Nullable StandardJavaFileManager fileManager;
+    private List<String> options = List.of();
+    private boolean unsupported;
+
+    /**
+     * Recompiles changed Java sources and their dependents.
+     *
+     * @param modifiedFiles all changed files, only Java sources under compile source roots are considered
+     * @return compilation result, or null if incremental compilation is not possible for this project
+     */
+    @Nullable Result compile(Set<Path> modifiedFiles) {
+        if (!initialize()) {
+            return null;
+        }
+        List<Path> sourceRoots = sourceRoots();
+        if (modifiedFiles.stream().anyMatch(path -> OTHER_LANGUAGE_SRC_DIRS.stream()
+                .anyMatch(dir -> path.startsWith(getSrcMainDir().resolve(dir)))
+                || (!path.toString().endsWith(JAVA_SUFFIX) && sourceRoots.stream().anyMatch(path::startsWith)))) {
+            getLog().debug("Non-Java sources changed, incremental compilation not possible");
+            return null;
+        }
+        Set<Path> changedSources = modifiedFiles.stream()
+                .filter(path -> path.toString().endsWith(JAVA_SUFFIX))
+                .filter(path -> sourceRoots.stream().anyMatch(path::startsWith))
+                .collect(Collectors.toSet());
+        if (changedSources.isEmpty()) {
+            return new Result(true, Set.of(), false);
+        }
+        long startTime = System.currentTimeMillis();
+        Set<Path> classFiles = new HashSet<>();
+        Set<Path> compiledSources = new HashSet<>();
+        Set<Path> sources = changedSources;
+        boolean success = true;
+        boolean structural = false;
+        while (success && !sources.isEmpty()) {
+            var round = compileRound(sources);
+            compiledSources.addAll(sources);
+            success = round.success();
+            classFiles.addAll(round.classFiles());
+            structural |= round.recompileAll() || !round.changedClasses().isEmpty();
+            sources = round.recompileAll() ? allSources(sourceRoots) : dependentSources(round.changedClasses());
+            sources.removeAll(compiledSources);
+        }
+        getLog().info("Compiled %d sources for %d changed sources in %d ms".formatted(
+                compiledSources.size(), changedSources.size(), System.currentTimeMillis() - startTime));
+        return new Result(success, classFiles, structural);
+    }
+
+    /**
+     * Outcome of compiling a set of sources.
+     *
+     * @param classFiles class files written or deleted
+     * @param changedClasses classes whose shape changed, or that were removed
+     * @param recompileAll whether a constant changed, or the previous shape of a class is not known
+     */
+    private record Round(boolean success, Set<Path> classFiles, Set<String> changedClasses, boolean recompileAll) { }
+
+    private Round compileRound(Set<Path> sources) {
+        Path outputDirectory = Paths.get(mojo.project.getBuild().getOutputDirectory());
+        Map<Path, byte[]> previousClassFiles = new HashMap<>();
+        Map<String, Integer> previousShapes = new HashMap<>();
+        Map<String, Integer> previousConstants = new HashMap<>();
+        boolean recompileAll = false;
+        for (Path source : sources) {
+            Set<String> classNames = Optional.ofNullable(sourceClasses.remove(source)).orElse(Set.of());
+            recompileAll |= classNames.isEmpty() && Files.exists(compiledClass(outputDirectory, source));
+            for (String className : classNames) {
+                previousShapes.put(className, classShapes.get(className));
+                previousConstants.put(className, classConstants.get(className));
+                Path classFile = outputDirectory.resolve(className + CLASS_SUFFIX);
+                try {
+                    previousClassFiles.put(classFile, Files.readAllBytes(classFile));
+                } catch (IOException e) {
+                    recompileAll = true;
+                }
+                forgetClass(className);
+            }
+        }
+        Set<Path> existingSources = sources.stream().filter(Files::exists).collect(Collectors.toSet());
+        Set<Path> written = new HashSet<>();
+        boolean success = existingSources.isEmpty() || compileSources(existingSources, written);
+        try {
+            if (!success) {
+                restore(previousClassFiles, written);
+                return new Round(false, Set.of(), Set.of(), false);
+            }
+            for (Path classFile : previousClassFiles.keySet()) {
+                if (!written.contains(classFile)) {
+                    Files.deleteIfExists(classFile);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written.forEach(this::addClass);
+        Set<Path> classFiles = new HashSet<>(written);
+        classFiles.addAll(previousClassFiles.keySet());
+        Set<String> changedClasses = previousShapes.entrySet().stream()
+                .filter(entry -> entry.getValue() == null || !entry.getValue().equals(classShapes.get(entry.getKey())))
+                .map(Map.Entry::getKey).collect(Collectors.toSet());
+        recompileAll |= previousConstants.entrySet().stream().anyMatch(entry -> entry.getValue() == null
+                || entry.getValue() != 0 && !entry.getValue().equals(classConstants.get(entry.getKey())));
+        return new Round(true, classFiles, changedClasses, recompileAll);
+    }
+
+    /**
+     * Puts back the class files replaced or deleted by a failed compilation.
+     */
+    private void restore(Map<Path, byte[]> previousClassFiles, Set<Path> written) throws IOException {
+        for (Path classFile : written) {
+            if (!previousClassFiles.containsKey(classFile)) {
+                Files.deleteIfExists(classFile);
+            }
+        }
+        for (var entry : previousClassFiles.entrySet()) {
+            Files.write(entry.getKey(), entry.getValue());
+            addClass(entry.getKey());
+        }
+    }
+
+    /**
+     * @return sources of the classes depending on any of the classes, directly or transitively
+     */
+    private Set<Path> dependentSources(Set<String> classNames) {
+        Set<String> dependents = new HashSet<>();
+        Queue<String> queue = new ArrayDeque<>(classNames);
+        while (!queue.isEmpty()) {
+            for (String dependent : classDependents.getOrDefault(queue.remove(), Set.of())) {
+                if (dependents.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return dependents.stream().map(classSources::get).filter(Objects::nonNull)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private Set<Path> allSources(List<Path> sourceRoots) {
+        getLog().debug("Constant changed or class shape not known, recompiling all sources");
+        try {
+            Set<Path> sources = new HashSet<>();
+            for (Path root : sourceRoots) {
+                if (Files.isDirectory(root)) {
+                    try (Stream<Path> files = Files.walk(root)) {
+                        files.filter(path -> path.toString().endsWith(JAVA_SUFFIX)).forEach(sources::add);
+                    }
+                }
+            }
+            return sources;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return class file of the source's top level class
+     */
+    private Path compiledClass(Path outputDirectory, Path source) {
+        String relativePath = sourceRoots().stream().filter(source::startsWith).findFirst()
+                .map(root -> root.relativize(source)).orElse(source.getFileName()).toString();
+        return outputDirectory.resolve(relativePath.substring(0, relativePath.length() - JAVA_SUFFIX.length())
+                + CLASS_SUFFIX);
+    }
+
+    private boolean compileSources(Set<Path> sources, Set<Path> written) {
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        var trackingFileManager = new ForwardingJavaFileManager<>(fileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                       JavaFileObject.Kind kind, FileObject sibling)
+                    throws IOException {
+                JavaFileObject output = super.getJavaFileForOutput(location, className, kind, sibling);
+                if (kind == JavaFileObject.Kind.CLASS) {
+                    written.add(Paths.get(output.toUri()));
+                }
+                return output;
+            }
+        };
+        boolean success = compiler.getTask(null, trackingFileManager, diagnostics, options, null,
+                fileManager.getJavaFileObjectsFromPaths(sources)).call();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            String message = "%s:[%d] %s".formatted(diagnostic.getSource() == null ? ""
+                    : diagnostic.getSource().getName(), diagnostic.getLineNumber(), diagnostic.getMessage(null));
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                getLog().error(message);
+            } else if (diagnostic.getKind() != Diagnostic.Kind.NOTE) {
+                getLog().warn(message);
+            }
+        }
+        return success;
+    }
+
+    private boolean initialize() {
+        if (unsupported) {
+            return false;
+        }
+        if (fileManager != null) {
+            return true;
+        }
+        compiler = ToolProvider.getSystemJavaCompiler();
+        options = compilerOptions();
+        if (compiler == null || options == null) {
+            getLog().info("Incremental compilation not supported for this project, using maven-compiler-plugin");
+            unsupported = true;
+            return false;
+        }
+        try {
+            fileManager = compiler.getStandardFileManager(null, null, encoding());
+            Path outputDirectory = Paths.get(mojo.project.getBuild().getOutputDirectory());
+            Files.createDirectories(outputDirectory);
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(outputDirectory));
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH,
+                    mojo.project.getCompileClasspathElements().stream().map(Paths::get).collect(Collectors.toList()));
+            try (Stream<Path> classes = Files.walk(outputDirectory)) {
+                classes.filter(path -> path.toString().endsWith(CLASS_SUFFIX)).forEach(this::addClass);
+            }
+            getLog().debug("Incremental compiler tracking %d classes".formatted(classSources.size()));
+            return true;
+        } catch (IOException | UncheckedIOException | DependencyResolutionRequiredException e) {
+            getLog().debug("Cannot initialize incremental compiler", e);
+            unsupported = true;
+            fileManager = null;
+            return false;
+        }
+    }
+
+    private @Nullable List<String> compilerOptions() {
+        Xpp3Dom config = compilerConfiguration();
+        if (sourceRoots().stream().anyMatch(root -> Files.exists(root.resolve("module-info.java")))
+                || !"javac".equals(Optional.ofNullable(value(config, "compilerId", null)).orElse("javac"))) {
+            return null;
+        }
+        var options = new ArrayList<String>();
+        options.add("-implicit:none");
+        String release = value(config, "release", "maven.compiler.release");
+        if (release != null) {
+            options.addAll(List.of("--release", release));
+        } else {
+            Optional.ofNullable(value(config, "source", "maven.compiler.source"))
+                    .ifPresent(source -> options.addAll(List.of("-source", source)));
+            Optional.ofNullable(value(config, "target", "maven.compiler.target"))
+                    .ifPresent(target -> options.addAll(List.of("-target", target)));
+        }
+        if (Boolean.parseBoolean(Optional.ofNullable(value(config, "debug", "maven.compiler.debug")).orElse("true"))) {
+            options.add("-g");
+        }
+        if (Boolean.parseBoolean(value(config, "parameters", "maven.compiler.parameters"))) {
+            options.add("-parameters");
+        }
+        Optional.ofNullable(value(config, "proc", "maven.compiler.proc")).ifPresent(proc -> options.add("-proc:" + proc));
+        Optional.ofNullable(config).map(c -> c.getChild("annotationProcessors")).ifPresent(processors ->
+                options.addAll(List.of("-processor", Arrays.stream(processors.getChildren())
+                        .map(Xpp3Dom::getValue).collect(Collectors.joining(",")))));
+        Optional.ofNullable(config).map(c -> c.getChild("compilerArgs")).ifPresent(args ->
+                Arrays.stream(args.getChildren()).map(Xpp3Dom::getValue).forEach(options::add));
+        Optional.ofNullable(value(config, "compilerArgument", null)).ifPresent(options::add);
+        var processorPaths = Optional.ofNullable(config).map(c -> c.getChild("annotationProcessorPaths"));
+        if (processorPaths.isPresent()) {
+            String processorPath = resolveProcessorPath(processorPaths.get());
+            if (processorPath == null) {
+                return null;
+            }
+            options.addAll(List.of("-processorpath", processorPath));
+        }
+        return options;
+    }
+
+    private @Nullable String resolveProcessorPath(Xpp3Dom processorPaths) {
+        var request = new CollectRequest();
+        for (Xpp3Dom path : processorPaths.getChildren()) {
+            String version = value(path, "version", null);
+            if (version == null) {
+                getLog().debug("Annotation processor path without version is not supported");
+                return null;
+            }
+            request.addDependency(new Dependency(new DefaultArtifact(value(path, "groupId", null),
+                    value(path, "artifactId", null), value(path, "classifier", null),
+                    Optional.ofNullable(value(path, "type", null)).orElse("jar"), version), "runtime"));
+        }
+        request.setRepositories(mojo.project.getRemoteProjectRepositories());
+        try {
+            return mojo.repositorySystem.resolveDependencies(mojo.session.getRepositorySession(),
+                            new DependencyRequest(request, null)).getArtifactResults().stream()
+                    .map(ArtifactResult::getArtifact)
+                    .map(artifact -> artifact.getFile().getPath())
+                    .collect(Collectors.joining(File.pathSeparator));
+        } catch (DependencyResolutionException e) {
+            getLog().debug("Cannot resolve annotation processor path", e);
+            return null;
+        }
+    }
+
+    private @Nullable Xpp3Dom compilerConfiguration() {
+        Plugin plugin = mojo.project.getPlugin("%s:maven-compiler-plugin".formatted(ORG_APACHE_MAVEN_PLUGINS));
+        if (plugin == null) {
+            return null;
+        }
+        PluginExecution execution = plugin.getExecutionsAsMap().get("default-compile");
+        return (Xpp3Dom) Optional.ofNullable(execution).map(PluginExecution::getConfiguration)
+                .orElse(plugin.getConfiguration());
+    }
+
+    private @Nullable String value(@Nullable Xpp3Dom config, String name, @Nullable String property) {
+        return Optional.ofNullable(config).map(c -> c.getChild(name)).map(Xpp3Dom::getValue)
+                .or(() -> Optional.ofNullable(property).map(mojo.project.getProperties()::getProperty))
+                .orElse(null);
+    }
+
+    private @Nullable Charset encoding() {
+        return Optional.ofNullable(value(compilerConfiguration(), "encoding", "project.build.sourceEncoding"))
+                .map(Charset::forName).orElse(null);
+    }
+
+    private List<Path> sourceRoots() {
+        return mojo.project.getCompileSourceRoots().stream().map(Paths::get).collect(Collectors.toList());
+    }
+
+    private void forgetClass(String className) {
+        classSources.remove(className);
+        classShapes.remove(className);
+        classConstants.remove(className);
+        classReferences.getOrDefault(className, Set.of()).forEach(reference ->
+                Optional.ofNullable(classDependents.get(reference)).ifPresent(set -> set.remove(className)));
+        classReferences.remove(className);
+    }
+
+    private void addClass(Path classFile) {
+        try {
+            var info = ClassFileInfo.read(Files.readAllBytes(classFile));
+            Path source = sourceFile(info);
+            if (source == null) {
+                return;
+            }
+            sourceClasses.computeIfAbsent(source, key -> new HashSet<>()).add(info.name());
+            classSources.put(info.name(), source);
+            classReferences.put(info.name(), info.references());
+            classShapes.put(info.name(), info.shape());
+            classConstants.put(info.name(), info.constants());
+            info.references().forEach(reference ->
+                    classDependents.computeIfAbsent(reference, key -> new HashSet<>()).add(info.name()));
+        } catch (IOException e) {
+            getLog().debug("Cannot read class file " + classFile, e);
+        }
+    }
+
+    private @Nullable Path sourceFile(ClassFileInfo info) {
+        if (info.sourceFile() == null) {
+            return null;
+        }
+        int packageEnd = info.name().lastIndexOf('/');
+        String relativePath = packageEnd < 0 ? info.sourceFile()
+                : info.name().substring(0, packageEnd + 1) + info.sourceFile();
+        return sourceRoots().stream().map(root -> root.resolve(relativePath))
+                .filter(Files::exists).findFirst().orElse(null);
+    }
+}
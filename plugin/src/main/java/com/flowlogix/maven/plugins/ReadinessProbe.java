@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import lombok.experimental.UtilityClass;
+import org.jspecify.annotations.Nullable;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits until the server or application is ready.
+ * Checks quickly at first and backs off exponentially up to {@link #MAX_INTERVAL},
+ * so readiness is detected within milliseconds when it is quick, without hammering the server when it is not.
+ * An optional signal, i.e. a marker in the server log, triggers the next check immediately.
+ */
+@UtilityClass
+class ReadinessProbe {
+    static final Duration INITIAL_INTERVAL = Duration.ofMillis(10);
+    static final Duration MAX_INTERVAL = Duration.ofMillis(500);
+
+    /**
+     * @param ready readiness check
+     * @param deadline how long to wait at most
+     * @param signal completes when the server is likely to be ready, null if there is none
+     * @return true if ready before the deadline
+     */
+    static boolean await(BooleanSupplier ready, Duration deadline, @Nullable CompletableFuture<?> signal)
+            throws InterruptedException {
+        long end = System.nanoTime() + deadline.toNanos();
+        long interval = INITIAL_INTERVAL.toNanos();
+        while (!ready.getAsBoolean()) {
+            long remaining = end - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            long wait = Math.min(interval, remaining);
+            if (signal != null && !signal.isDone()) {
+                try {
+                    signal.get(wait, TimeUnit.NANOSECONDS);
+                    // check right away, then start backing off again
+                    interval = INITIAL_INTERVAL.toNanos();
+                    continue;
+                } catch (TimeoutException | ExecutionException e) {
+                    // signal did not arrive, keep polling
+                }
+            } else {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            interval = Math.min(interval * 2, MAX_INTERVAL.toNanos());
+        }
+        return true;
+    }
+}
@@ -35,6 +35,7 @@ public class ReloadMojo extends CommonDevMojo {
     @Override
     public void execute() throws MojoFailureException {
         getLog().info("Application URL at " + getAppURL());
+        devSession.clear();
         if (deployer.sendDisableCommand(deployer::printResponse) != CommandResult.SUCCESS) {
             throw new MojoFailureException("Application disable failed, see log for details.");
         }
@@ -19,11 +19,14 @@
 package com.flowlogix.maven.plugins;
 
 import com.flowlogix.maven.plugins.Deployer.CommandResult;
+import com.flowlogix.maven.plugins.Deployer.ServerLocations;
 import lombok.SneakyThrows;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.jspecify.annotations.Nullable;
+import java.time.Duration;
 import java.util.Map;
-import java.util.stream.IntStream;
 
 /**
  * Goal which restarts the application server.
@@ -31,28 +34,43 @@ import java.util.stream.IntStream;
  */
 @Mojo(name = "restart", requiresProject = false, threadSafe = true)
 public class RestartDomainMojo extends CommonDevMojo {
+    /**
+     * How long to wait for the server to come back up, in seconds.
+     */
+    @Parameter(property = "restart-timeout", defaultValue = "30")
+    int restartTimeout;
+
     @Override
+    @SneakyThrows(InterruptedException.class)
     public void execute() throws MojoFailureException {
         if (!deployer.pingServer()) {
             throw new MojoFailureException("Server is not running.");
         }
-        if (deployer.sendCommand("restart-domain", Map.of(),
-                deployer::printResponse) == CommandResult.ERROR) {
-            throw new MojoFailureException("Restart failed, see log for details.");
-        }
-        @SuppressWarnings("checkstyle:MagicNumber")
-        boolean serverStarted = IntStream.range(0, 30).anyMatch(this::ping);
-        if (serverStarted) {
-            getLog().info("Application Server restarted.");
-        } else {
-            getLog().warn("Application Server restart timed out after 30 seconds.");
+        ServerLocations before = deployer.serverLocations();
+        String previousPid = before == null ? null : before.properties().pid();
+        serverLocationsCache.invalidate();
+        try (var serverLog = ServerLogTailer.follow(before)) {
+            var started = serverLog == null ? null : serverLog.await(ServerLogTailer.STARTUP_COMPLETE);
+            if (deployer.sendCommand("restart-domain", Map.of(),
+                    deployer::printResponse) == CommandResult.ERROR) {
+                throw new MojoFailureException("Restart failed, see log for details.");
+            }
+            if (ReadinessProbe.await(() -> isRestarted(previousPid), Duration.ofSeconds(restartTimeout), started)) {
+                getLog().info("Application Server restarted.");
+            } else {
+                getLog().warn("Application Server restart timed out after %d seconds.".formatted(restartTimeout));
+            }
         }
     }
 
-    @SneakyThrows(InterruptedException.class)
-    @SuppressWarnings("checkstyle:MagicNumber")
-    private boolean ping(int attempt) {
-        Thread.sleep(1000);
-        return deployer.pingServer();
+    /**
+     * The server is restarted when it responds from a different process than before the restart.
+     */
+    private boolean isRestarted(@Nullable String previousPid) {
+        if (!deployer.pingServer()) {
+            return false;
+        }
+        ServerLocations locations = deployer.fetchServerLocationsAsync().join();
+        return locations != null && (previousPid == null || !previousPid.equals(locations.properties().pid()));
     }
 }
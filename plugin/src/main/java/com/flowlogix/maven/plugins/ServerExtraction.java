@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.jspecify.annotations.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import static com.flowlogix.maven.plugins.CommonDevMojo.MAVEN_DEPENDENCY_PLUGIN;
+import static com.flowlogix.maven.plugins.CommonDevMojo.ORG_APACHE_MAVEN_PLUGINS;
+
+/**
+ * Extracts the application server distribution configured in the {@code unpack-server} execution
+ * of {@code maven-dependency-plugin}, unless it is already extracted.
+ * <p>
+ * A marker in the output directory records the coordinates and checksum of the extracted distribution,
+ * and the files it contained. Markers are named after the artifact, as several distributions
+ * may be extracted to the same directory. An extraction is reused when the distribution is the same and all its files
+ * are still present. Otherwise, the entries are unpacked in parallel.
+ */
+@RequiredArgsConstructor
+class ServerExtraction {
+    static final String MARKER = ".container-deploy-extracted";
+    private static final String EXECUTION = "unpack-server";
+    private static final Set<String> SUPPORTED_OPTIONS = Set.of("skip", "outputDirectory", "artifactItems",
+            "overWriteReleases", "overWriteSnapshots", "overWriteIfNewer", "markersDirectory");
+    private static final Set<String> SUPPORTED_ITEM_OPTIONS = Set.of("groupId", "artifactId", "version",
+            "type", "classifier", "outputDirectory", "overWrite");
+
+    /**
+     * Distribution archive to extract.
+     *
+     * @param coordinates Maven coordinates of the archive
+     * @param archive archive in the local repository
+     * @param outputDirectory where to extract the archive
+     */
+    record Distribution(String coordinates, Path archive, Path outputDirectory) { }
+
+    /**
+     * Artifact items read from the project, which can be resolved and extracted on another thread
+     * without accessing the project.
+     *
+     * @param repositories remote repositories of the project
+     */
+    record Configuration(List<Item> items, List<RemoteRepository> repositories) { }
+
+    /**
+     * @param artifact artifact to resolve
+     * @param outputDirectory where to extract the artifact
+     */
+    record Item(Artifact artifact, Path outputDirectory) { }
+
+    @Delegate
+    private final CommonDevMojo mojo;
+
+    /**
+     * Extracts the configured distributions, or reuses previous extractions.
+     *
+     * @return false if the configuration is not understood, and the unpack goal should be executed instead
+     */
+    boolean extract() throws IOException {
+        return extract(configuration());
+    }
+
+    /**
+     * @param configuration artifact items, previously read with {@link #configuration()}
+     */
+    boolean extract(@Nullable Configuration configuration) throws IOException {
+        List<Distribution> distributions = distributions(configuration);
+        if (distributions == null) {
+            return false;
+        }
+        for (Distribution distribution : distributions) {
+            long start = System.currentTimeMillis();
+            if (extract(distribution)) {
+                getLog().info("Extracted %s to %s in %d ms".formatted(distribution.coordinates(),
+                        distribution.outputDirectory(), System.currentTimeMillis() - start));
+            } else {
+                getLog().info("Reusing %s extracted to %s".formatted(distribution.coordinates(),
+                        distribution.outputDirectory()));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if extracted, false if a previous extraction was reused
+     */
+    static boolean extract(Distribution distribution) throws IOException {
+        Path markerFile = markerFile(distribution);
+        Marker previous = Marker.read(markerFile);
+        var stamp = FileIndex.Stamp.of(Files.readAttributes(distribution.archive(), BasicFileAttributes.class));
+        if (previous != null && previous.coordinates().equals(distribution.coordinates())
+                && (previous.stamp().equals(stamp) || previous.checksum() == ContentHash.of(distribution.archive()))
+                && previous.isIntact(distribution.outputDirectory())) {
+            return false;
+        }
+        Files.deleteIfExists(markerFile);
+        List<String> files = unzip(distribution.archive(), distribution.outputDirectory());
+        new Marker(distribution.coordinates(), stamp, ContentHash.of(distribution.archive()), files).write(markerFile);
+        return true;
+    }
+
+    /**
+     * @return marker of the artifact, regardless of its version
+     */
+    static Path markerFile(Distribution distribution) {
+        String coordinates = distribution.coordinates();
+        String artifact = coordinates.contains(":") ? coordinates.substring(0, coordinates.lastIndexOf(':'))
+                : coordinates;
+        return distribution.outputDirectory().resolve(MARKER + "-" + artifact.replaceAll("[^\\w.-]", "_"));
+    }
+
+    /**
+     * Unpacks the archive, files are written in parallel.
+     *
+     * @return names of the unpacked files
+     */
+    static List<String> unzip(Path archive, Path outputDirectory) throws IOException {
+        Path root = outputDirectory.toAbsolutePath().normalize();
+        try (var zip = new ZipFile(archive.toFile())) {
+            Map<ZipEntry, Path> files = new LinkedHashMap<>();
+            Set<Path> directories = new HashSet<>();
+            for (ZipEntry entry : zip.stream().toList()) {
+                Path target = root.resolve(entry.getName()).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IOException("Entry %s is outside of %s".formatted(entry.getName(), root));
+                }
+                if (entry.isDirectory()) {
+                    directories.add(target);
+                } else {
+                    directories.add(target.getParent());
+                    files.put(entry, target);
+                }
+            }
+            for (Path directory : directories) {
+                Files.createDirectories(directory);
+            }
+            try {
+                files.entrySet().parallelStream().forEach(file -> unpack(zip, file.getKey(), file.getValue()));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return files.keySet().stream().map(ZipEntry::getName).toList();
+        }
+    }
+
+    private static void unpack(ZipFile zip, ZipEntry entry, Path target) {
+        try (InputStream input = zip.getInputStream(entry)) {
+            Files.copy(input, target, StandardCopyOption.REPLACE_EXISTING);
+            FileTime modified = entry.getLastModifiedTime();
+            if (modified != null) {
+                Files.setLastModifiedTime(target, modified);
+            }
+            if (isExecutable(entry.getName())) {
+                // java.util.zip does not expose Unix permissions
+                target.toFile().setExecutable(true, false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static boolean isExecutable(String name) {
+        Path path = Paths.get(name);
+        return name.endsWith(".sh") || (path.getParent() != null
+                && "bin".equals(path.getParent().getFileName().toString()) && !name.endsWith(".bat"));
+    }
+
+    /**
+     * @return configured distributions, or null if the configuration is not understood
+     */
+    @Nullable List<Distribution> distributions() {
+        return distributions(configuration());
+    }
+
+    /**
+     * Resolves the distributions, without accessing the project.
+     *
+     * @return resolved distributions, or null if the configuration is not understood or an artifact
+     *         cannot be resolved
+     */
+    @Nullable List<Distribution> distributions(@Nullable Configuration configuration) {
+        if (configuration == null) {
+            return null;
+        }
+        List<Distribution> distributions = new ArrayList<>();
+        for (Item item : configuration.items()) {
+            try {
+                var resolved = mojo.repositorySystem.resolveArtifact(mojo.session.getRepositorySession(),
+                        new ArtifactRequest(item.artifact(), configuration.repositories(), null)).getArtifact();
+                distributions.add(new Distribution(resolved.toString(), resolved.getFile().toPath(),
+                        item.outputDirectory()));
+            } catch (ArtifactResolutionException e) {
+                getLog().debug("Cannot resolve " + item.artifact(), e);
+                return null;
+            }
+        }
+        return distributions;
+    }
+
+    /**
+     * @return configured artifact items, or null if the configuration is not understood
+     */
+    @Nullable Configuration configuration() {
+        Plugin plugin = mojo.project.getPlugin("%s:%s".formatted(ORG_APACHE_MAVEN_PLUGINS, MAVEN_DEPENDENCY_PLUGIN));
+        PluginExecution execution = plugin == null ? null : plugin.getExecutionsAsMap().get(EXECUTION);
+        if (execution == null || !(execution.getConfiguration() instanceof Xpp3Dom configuration)
+                || !isSupported(configuration, SUPPORTED_OPTIONS) || configuration.getChild("artifactItems") == null) {
+            return null;
+        }
+        Path defaultOutput = Optional.ofNullable(value(configuration, "outputDirectory")).map(this::path)
+                .orElse(Paths.get(mojo.project.getBuild().getDirectory(), "dependency"));
+        List<Item> items = new ArrayList<>();
+        for (Xpp3Dom item : configuration.getChild("artifactItems").getChildren()) {
+            String version = value(item, "version");
+            if (!isSupported(item, SUPPORTED_ITEM_OPTIONS) || version == null) {
+                return null;
+            }
+            items.add(new Item(new DefaultArtifact(value(item, "groupId"), value(item, "artifactId"),
+                    value(item, "classifier"), Optional.ofNullable(value(item, "type")).orElse("jar"), version),
+                    Optional.ofNullable(value(item, "outputDirectory")).map(this::path).orElse(defaultOutput)));
+        }
+        return new Configuration(List.copyOf(items), List.copyOf(mojo.project.getRemoteProjectRepositories()));
+    }
+
+    private boolean isSupported(Xpp3Dom configuration, Set<String> supported) {
+        var unsupported = Arrays.stream(configuration.getChildren()).map(Xpp3Dom::getName)
+                .filter(Predicate.not(supported::contains)).toList();
+        if (!unsupported.isEmpty()) {
+            getLog().debug("Unpacking with %s, options not supported by cached extraction: %s"
+                    .formatted(MAVEN_DEPENDENCY_PLUGIN, unsupported));
+        }
+        return unsupported.isEmpty();
+    }
+
+    private Path path(String value) {
+        return mojo.project.getBasedir().toPath().resolve(value);
+    }
+
+    private static @Nullable String value(Xpp3Dom configuration, String name) {
+        Xpp3Dom child = configuration.getChild(name);
+        return child == null || child.getValue() == null || child.getValue().isBlank() ? null : child.getValue().strip();
+    }
+
+    /**
+     * Contents of the marker file.
+     *
+     * @param files names of the extracted files
+     */
+    record Marker(String coordinates, FileIndex.Stamp stamp, long checksum, List<String> files) {
+        static @Nullable Marker read(Path markerFile) {
+            try {
+                List<String> lines = Files.readAllLines(markerFile);
+                String[] archive = lines.get(1).split(" ");
+                return new Marker(lines.get(0), new FileIndex.Stamp(Long.parseLong(archive[0]),
+                        Long.parseLong(archive[1])), Long.parseLong(archive[2]), lines.subList(2, lines.size()));
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        void write(Path markerFile) throws IOException {
+            List<String> lines = new ArrayList<>(files.size() + 2);
+            lines.add(coordinates);
+            lines.add("%d %d %d".formatted(stamp.modified(), stamp.size(), checksum));
+            lines.addAll(files);
+            Files.write(markerFile, lines);
+        }
+
+        boolean isIntact(Path outputDirectory) {
+            return files.stream().allMatch(file -> Files.exists(outputDirectory.resolve(file)));
+        }
+    }
+}
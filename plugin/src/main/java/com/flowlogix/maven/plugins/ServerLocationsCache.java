@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.Deployer.ServerLocations;
+import jakarta.json.bind.JsonbException;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+import org.jspecify.annotations.Nullable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import static com.flowlogix.maven.plugins.Deployer.JSONB;
+
+/**
+ * Caches the server locations, so they are fetched from the server once instead of by every lookup.
+ * <p>
+ * Cached locations expire after {@link #TTL}, and are invalidated when the server is started,
+ * stopped or restarted by the plugin. They are also persisted under {@code target/},
+ * where they remain valid for later Maven invocations of a local server as long as its process is alive.
+ * The process of a remote or containerized server can not be checked, so their locations are fetched again.
+ */
+@RequiredArgsConstructor
+class ServerLocationsCache {
+    static final Duration TTL = Duration.ofMinutes(5);
+    private static final String CACHE_FILE = "server-locations.json";
+
+    /**
+     * Cached locations.
+     *
+     * @param adminURL administration URL of the server the locations belong to
+     * @param fetched when the locations were fetched, in milliseconds since the epoch
+     * @param locations server locations
+     */
+    public record Entry(String adminURL, long fetched, ServerLocations locations) {
+        boolean isExpired() {
+            return System.currentTimeMillis() - fetched >= TTL.toMillis();
+        }
+
+        /**
+         * Whether the server process of a local server is still the same, a process with the PID that started
+         * after the locations were fetched, or that is not a Java process, reuses the PID.
+         */
+        boolean isServerAlive() {
+            if (!isLoopback(adminURL)) {
+                return false;
+            }
+            try {
+                return ProcessHandle.of(Long.parseLong(locations.properties().pid()))
+                        .filter(ProcessHandle::isAlive)
+                        .map(ProcessHandle::info)
+                        .filter(info -> info.startInstant().map(start -> start.toEpochMilli() <= fetched).orElse(true))
+                        .filter(info -> info.command().map(command -> command.contains("java")).orElse(true))
+                        .isPresent();
+            } catch (NumberFormatException | NullPointerException e) {
+                return false;
+            }
+        }
+    }
+
+    static boolean isLoopback(String adminURL) {
+        try {
+            String host = URI.create(adminURL).getHost();
+            if (host == null) {
+                return false;
+            }
+            if ("localhost".equalsIgnoreCase(host)) {
+                return true;
+            }
+            // only IP literals, resolving host names may block
+            return (host.matches("[0-9.]+") || host.startsWith("["))
+                    && InetAddress.getByName(host).isLoopbackAddress();
+        } catch (IllegalArgumentException | UnknownHostException e) {
+            return false;
+        }
+    }
+
+    @Delegate
+    private final CommonDevMojo mojo;
+    private volatile @Nullable Entry entry;
+
+    /**
+     * @return cached locations of the configured server, or null if they have to be fetched
+     */
+    @Nullable ServerLocations get() {
+        Entry current = entry;
+        if (current != null && current.adminURL().equals(mojo.serverAminURL) && !current.isExpired()) {
+            return current.locations();
+        }
+        current = load();
+        if (current != null && current.adminURL().equals(mojo.serverAminURL) && current.isServerAlive()) {
+            getLog().debug("Using server locations cached by a previous invocation");
+            entry = current;
+            return current.locations();
+        }
+        return null;
+    }
+
+    void put(ServerLocations locations) {
+        var current = new Entry(mojo.serverAminURL, System.currentTimeMillis(), locations);
+        entry = current;
+        if (isPersistent()) {
+            try {
+                Files.createDirectories(getStateDir());
+                Files.writeString(cacheFile(), JSONB.toJson(current));
+            } catch (IOException | JsonbException e) {
+                getLog().debug("Cannot save server locations", e);
+            }
+        }
+    }
+
+    /**
+     * Forgets the cached locations, i.e. when the server is started, stopped or restarted.
+     */
+    void invalidate() {
+        entry = null;
+        if (isPersistent()) {
+            try {
+                Files.deleteIfExists(cacheFile());
+            } catch (IOException e) {
+                getLog().debug("Cannot delete cached server locations", e);
+            }
+        }
+    }
+
+    private @Nullable Entry load() {
+        if (!isPersistent() || Files.notExists(cacheFile())) {
+            return null;
+        }
+        try {
+            return JSONB.fromJson(Files.readString(cacheFile()), Entry.class);
+        } catch (IOException | JsonbException e) {
+            getLog().debug("Cannot read cached server locations", e);
+            return null;
+        }
+    }
+
+    /**
+     * Goals can run without a project, in that case there is no target directory to persist to.
+     */
+    private boolean isPersistent() {
+        return mojo.project != null && mojo.project.getFile() != null;
+    }
+
+    private Path cacheFile() {
+        return getStateDir().resolve(CACHE_FILE);
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.Deployer.ServerLocations;
+import org.jspecify.annotations.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Follows the server log of a local server, and signals when lines matching a pattern are appended,
+ * i.e. when the server finished starting or an application finished loading.
+ * <p>
+ * Only appended bytes are read, through a fixed size buffer, so large logs are never re-read.
+ * Warning and severe records logged during a {@link #startCycle(Consumer) deploy cycle} are passed
+ * to the cycle's listener. Both the ODL ({@code [date] [product] [SEVERE] ... [[ message ]]})
+ * and the uniform ({@code [#|date|SEVERE|product|logger|attributes|message|#]}) log formats are understood.
+ */
+class ServerLogTailer implements AutoCloseable {
+    static final Pattern STARTUP_COMPLETE = Pattern.compile("startup time :");
+    /**
+     * File system notifications are not delivered on all platforms, the log is checked at least this often.
+     */
+    private static final long CHECK_INTERVAL_MILLIS = 100;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_LINE = 16 * 1024;
+    private static final int MAX_RECORD = 64 * 1024;
+    private static final Pattern RECORD_START = Pattern.compile("^\\[(#\\|)?\\d{4}-");
+    private static final Pattern RECORD_LEVEL = Pattern.compile("[\\[|](SEVERE|WARNING)[\\]|]");
+    private static final Pattern RECORD_END = Pattern.compile("(\\]\\]|\\|#\\])\\s*$");
+    private static final int UNIFORM_FORMAT_FIELDS = 7;
+
+    /**
+     * Warning or severe log record.
+     *
+     * @param level {@code SEVERE} or {@code WARNING}
+     * @param message message of the record, including any stack trace
+     */
+    record LogRecord(String level, String message) {
+        boolean isSevere() {
+            return "SEVERE".equals(level);
+        }
+
+        static LogRecord of(String level, String record) {
+            String message = record.strip();
+            int odlStart = message.indexOf("[[");
+            if (odlStart >= 0) {
+                message = message.substring(odlStart + 2);
+                message = message.endsWith("]]") ? message.substring(0, message.length() - 2) : message;
+            } else if (message.startsWith("[#|")) {
+                String[] fields = message.split("\\|", UNIFORM_FORMAT_FIELDS);
+                message = fields[fields.length - 1];
+                message = message.endsWith("|#]") ? message.substring(0, message.length() - 3) : message;
+            }
+            return new LogRecord(level, message.strip());
+        }
+    }
+
+    private record Waiting(Pattern pattern, CompletableFuture<String> line) { }
+
+    private final Path logFile;
+    private final List<Waiting> waiting = new CopyOnWriteArrayList<>();
+    private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+    private final StringBuilder record = new StringBuilder();
+    private final Thread follower;
+    private volatile @Nullable Consumer<LogRecord> recordListener;
+    private @Nullable String recordLevel;
+    private @Nullable Object fileKey;
+    private long position;
+
+    private ServerLogTailer(Path logFile) throws IOException {
+        this.logFile = logFile;
+        var attributes = Files.readAttributes(logFile, BasicFileAttributes.class);
+        this.position = attributes.size();
+        this.fileKey = attributes.fileKey();
+        follower = new Thread(this::follow, "server-log-tailer");
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    /**
+     * Starts following the log of the server, from its current end.
+     *
+     * @return null if the server log is not accessible, i.e. the server is remote
+     */
+    static @Nullable ServerLogTailer follow(@Nullable ServerLocations locations) {
+        if (locations == null || locations.properties().instanceRoot() == null) {
+            return null;
+        }
+        Path logFile = Paths.get(locations.properties().instanceRoot(), "logs", "server.log");
+        try {
+            return Files.isReadable(logFile) ? new ServerLogTailer(logFile) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static Pattern deploymentComplete(String application) {
+        return Pattern.compile("Loading application \\[%1$s\\]|%1$s was successfully deployed"
+                .formatted(Pattern.quote(application)));
+    }
+
+    /**
+     * @return completes with the first line appended from now on that matches the pattern
+     */
+    CompletableFuture<String> await(Pattern pattern) {
+        var line = new CompletableFuture<String>();
+        waiting.add(new Waiting(pattern, line));
+        return line;
+    }
+
+    /**
+     * Starts a deploy cycle. Records logged before are skipped, warning and severe records logged
+     * from now on until the next cycle starts are passed to the listener.
+     */
+    void startCycle(Consumer<LogRecord> listener) {
+        drain();
+        recordListener = listener;
+    }
+
+    /**
+     * Reads everything appended so far, so the records are reported before continuing.
+     */
+    void drain() {
+        try {
+            readAppended();
+        } catch (IOException e) {
+            // the follower thread reports errors
+        }
+    }
+
+    @Override
+    public void close() {
+        follower.interrupt();
+    }
+
+    private void follow() {
+        try (WatchService watchService = logFile.getFileSystem().newWatchService()) {
+            logFile.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+            while (!Thread.currentThread().isInterrupted()) {
+                var key = watchService.poll(CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                readAppended();
+            }
+        } catch (IOException e) {
+            waiting.forEach(entry -> entry.line().completeExceptionally(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void readAppended() throws IOException {
+        if (Files.notExists(logFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            Object currentKey = Files.readAttributes(logFile, BasicFileAttributes.class).fileKey();
+            if (channel.size() < position || (fileKey != null && !fileKey.equals(currentKey))) {
+                // log was rotated
+                position = 0;
+                partialLine.reset();
+            }
+            fileKey = currentKey;
+            var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer.clear(), position) > 0) {
+                buffer.flip();
+                position += buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    byte next = buffer.get();
+                    if (next == '\n') {
+                        onLine(partialLine.toString(StandardCharsets.UTF_8));
+                        partialLine.reset();
+                    } else if (partialLine.size() < MAX_LINE) {
+                        partialLine.write(next);
+                    }
+                }
+            }
+        }
+    }
+
+    private void onLine(String line) {
+        collectRecord(line);
+        for (Waiting entry : waiting) {
+            if (entry.pattern().matcher(line).find()) {
+                entry.line().complete(line);
+                waiting.remove(entry);
+            }
+        }
+    }
+
+    private void collectRecord(String line) {
+        if (RECORD_START.matcher(line).find()) {
+            flushRecord();
+            var level = RECORD_LEVEL.matcher(line);
+            recordLevel = level.find() ? level.group(1) : null;
+        }
+        if (recordLevel == null) {
+            return;
+        }
+        if (record.length() < MAX_RECORD) {
+            record.append(line, 0, Math.min(line.length(), MAX_RECORD - record.length())).append('\n');
+        }
+        if (RECORD_END.matcher(line).find()) {
+            flushRecord();
+        }
+    }
+
+    private void flushRecord() {
+        Consumer<LogRecord> listener = recordListener;
+        if (recordLevel != null && listener != null) {
+            listener.accept(LogRecord.of(recordLevel, record.toString()));
+        }
+        recordLevel = null;
+        record.setLength(0);
+    }
+}
@@ -34,6 +34,7 @@ public class UndeployMojo extends CommonDevMojo {
 
     @Override
     public void execute() throws MojoFailureException {
+        devSession.clear();
         if (deployer.sendUndeployCommand(name, deployer::printResponse) != CommandResult.SUCCESS) {
             throw new MojoFailureException("Undeployment failed, see log for details.");
         }
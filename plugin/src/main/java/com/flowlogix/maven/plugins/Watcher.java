@@ -26,6 +26,7 @@ import lombok.experimental.Delegate;
 import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
@@ -37,31 +38,118 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.function.Predicate.not;
 
 /**
  * Watches a directory and its subdirectories for file changes.
  */
 @RequiredArgsConstructor
 class Watcher {
+    /**
+     * Upper bound of the CPU time spent polling, scans take at most 1/10th of the time.
+     */
+    private static final int POLL_CPU_FACTOR = 10;
+    private static final String INDEX_FILE = "watcher-index";
+
+    enum Backend {
+        /** File system notifications via {@link WatchService}. */
+        NATIVE,
+        /** Periodic scans of the directory tree, for file systems that do not deliver notifications. */
+        POLLING
+    }
+
+    /**
+     * Watcher configuration.
+     *
+     * @param delay initial milliseconds to wait for more changes before notifying,
+     *              the window adapts to how changes arrive afterwards
+     * @param maxLatency maximum milliseconds between the first change and notifying
+     * @param backend how changes are detected
+     * @param pollInterval milliseconds between scans with the polling backend
+     */
+    record Config(int delay, int maxLatency, Backend backend, int pollInterval) { }
+
     @Delegate
     private final CommonDevMojo mojo;
+    private final FileIndex index = new FileIndex();
 
     @SneakyThrows({IOException.class, InterruptedException.class})
-    public void watch(Path root, @NonNull Consumer<Set<Path>> onChange, int delay) {
+    public void watch(Path root, @NonNull Consumer<Set<Path>> onChange, @NonNull Config config) {
+        @Cleanup("shutdown") ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        Consumer<Set<Path>> onModified = intake(onChange, config, executorService);
+        Path indexFile = getStateDir().resolve(INDEX_FILE);
+        index.load(indexFile, root);
+        // files changed while dev mode was not running
+        index.scan(root).forEach(index::invalidate);
+        getLog().debug("Indexed %d files".formatted(index.size()));
+        ForkJoinPool.commonPool().execute(index::hashAll);
+        Thread saveIndex = new Thread(() -> saveIndex(indexFile, root));
+        Runtime.getRuntime().addShutdownHook(saveIndex);
+        try {
+            switch (config.backend()) {
+                case NATIVE -> watchNative(root, onModified);
+                case POLLING -> poll(root, onModified, config.pollInterval());
+            }
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(saveIndex);
+                saveIndex(indexFile, root);
+            } catch (IllegalStateException e) {
+                getLog().debug("Shutting down, index will be saved by the shutdown hook");
+            }
+        }
+        Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Creates the consumer of changes reported by the backends, which drops files
+     * with unchanged content and debounces the rest before passing them to {@code onChange}.
+     *
+     * @param executorService runs {@code onChange}
+     * @return consumer of a mutable set of modified files
+     */
+    Consumer<Set<Path>> intake(Consumer<Set<Path>> onChange, Config config,
+                               ScheduledExecutorService executorService) {
+        Set<Path> pendingFiles = new ConcurrentSkipListSet<>();
+        AtomicReference<ScheduledFuture<?>> notifyOnChangeTask = new AtomicReference<>();
+        var debounce = new AdaptiveDebounce(config.delay(), config.maxLatency());
+        return modifiedFiles -> {
+            var event = new DevModeEvents.FileChange();
+            event.files = modifiedFiles.size();
+            if (modifiedFiles.removeIf(index::isContentUnchanged)) {
+                getLog().debug("Ignoring files with unchanged content");
+            }
+            event.unchangedContent = event.files - modifiedFiles.size();
+            event.commit();
+            if (!modifiedFiles.isEmpty() && pendingFiles.addAll(modifiedFiles)) {
+                delayNextChange(pendingFiles, notifyOnChangeTask, executorService, onChange, debounce);
+            }
+        };
+    }
+
+    private void saveIndex(Path indexFile, Path root) {
+        try {
+            index.save(indexFile, root);
+        } catch (IOException e) {
+            getLog().debug("Cannot save file index", e);
+        }
+    }
+
+    private void watchNative(Path root, Consumer<Set<Path>> onModified) throws IOException, InterruptedException {
         try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
-            @Cleanup("shutdown") ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
             Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
             register(root, keys, watchService);
-            Set<Path> pendingFiles = new ConcurrentSkipListSet<>();
-            AtomicReference<ScheduledFuture<?>> notifyOnChangeTask = new AtomicReference<>();
             while (!Thread.interrupted()) {
                 WatchKey key = watchService.poll(1, TimeUnit.SECONDS);
                 if (key == null) {
@@ -69,30 +157,77 @@ class Watcher {
                 }
                 Set<Path> modifiedFiles = new HashSet<>();
                 for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        getLog().debug("Events lost, rescanning " + keys.get(key));
+                        modifiedFiles.addAll(rescan(keys.get(key), keys, watchService));
+                        continue;
+                    }
                     Path path = keys.get(key).resolve((Path) event.context());
                     getLog().debug("Event kind: " + event.kind() + ". File affected: " + event.context());
                     getLog().debug("key path: " + path);
                     if (event.kind() == ENTRY_CREATE && path.toFile().isDirectory()) {
                         register(path, keys, watchService);
+                        // files may have been created before the directory was registered
+                        modifiedFiles.addAll(index.scan(path));
                     }
-                    if (path.toFile().isFile()) {
-                        modifiedFiles.add(path);
+                    if (event.kind() == ENTRY_DELETE || path.toFile().isFile()) {
+                        modifiedFiles.addAll(index.update(path));
                     }
                 }
-                key.reset();
-                if (!modifiedFiles.isEmpty() && pendingFiles.addAll(modifiedFiles)) {
-                    delayNextChange(pendingFiles, notifyOnChangeTask, executorService, onChange, delay);
+                if (!key.reset()) {
+                    // directory deleted
+                    keys.remove(key);
                 }
+                onModified.accept(modifiedFiles);
+            }
+        }
+    }
+
+    /**
+     * Rescans a directory after events were lost. Overflow is reported for every watched directory,
+     * so only the files directly in the directory are scanned, and the subdirectories that are not watched yet.
+     */
+    private Set<Path> rescan(Path directory, Map<WatchKey, Path> keys, WatchService watchService)
+            throws IOException {
+        Set<Path> modifiedFiles = index.scan(directory, 1);
+        Set<Path> registered = new HashSet<>(keys.values());
+        try (Stream<Path> children = Files.list(directory)) {
+            for (Path child : (Iterable<Path>) children.filter(Files::isDirectory)
+                    .filter(not(registered::contains))::iterator) {
+                register(child, keys, watchService);
+                modifiedFiles.addAll(index.scan(child));
             }
-            Thread.currentThread().interrupt();
+        } catch (NoSuchFileException e) {
+            getLog().debug("Directory deleted " + directory);
+        }
+        return modifiedFiles;
+    }
+
+    private void poll(Path root, Consumer<Set<Path>> onModified, int pollInterval)
+            throws IOException, InterruptedException {
+        getLog().info("Polling %s for changes every %d ms".formatted(root, pollInterval));
+        while (!Thread.interrupted()) {
+            long startTime = System.currentTimeMillis();
+            onModified.accept(index.scan(root));
+            long scanTime = System.currentTimeMillis() - startTime;
+            getLog().debug("Scanned %d files in %d ms".formatted(index.size(), scanTime));
+            Thread.sleep(Math.max(pollInterval, scanTime * POLL_CPU_FACTOR));
         }
     }
 
-    private static void delayNextChange(Set<Path> pendingFiles, AtomicReference<ScheduledFuture<?>> notifyOnChangeTask,
-                                        ScheduledExecutorService executorService, Consumer<Set<Path>> onChange, int delay) {
+    private void delayNextChange(Set<Path> pendingFiles, AtomicReference<ScheduledFuture<?>> notifyOnChangeTask,
+                                 ScheduledExecutorService executorService, Consumer<Set<Path>> onChange,
+                                 AdaptiveDebounce debounce) {
+        long delay = debounce.onEvent(System.currentTimeMillis());
+        getLog().debug("Debounce " + debounce.describe());
         Optional.ofNullable(notifyOnChangeTask.getAndSet(executorService.schedule(() -> {
+                    debounce.fired(System.currentTimeMillis());
                     Set<Path> toNotify = Set.copyOf(pendingFiles);
                     pendingFiles.clear();
+                    var event = new DevModeEvents.DebounceFired();
+                    event.files = toNotify.size();
+                    event.window = delay;
+                    event.commit();
                     onChange.accept(toNotify);
                 }, delay, TimeUnit.MILLISECONDS)))
                 .ifPresent(task -> task.cancel(false));
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.junit.jupiter.api.Test;
+import static com.flowlogix.maven.plugins.AdaptiveDebounce.MIN_WINDOW;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveDebounceTest {
+    @Test
+    void startsWithInitialWindow() {
+        assertThat(new AdaptiveDebounce(50, 500).onEvent(0)).isEqualTo(50);
+    }
+
+    @Test
+    void firesQuicklyAfterLoneEvents() {
+        var debounce = new AdaptiveDebounce(50, 500);
+        long now = 0;
+        for (int save = 0; save < 5; ++save) {
+            now += 1000;
+            now += debounce.onEvent(now);
+            debounce.fired(now);
+        }
+        assertThat(debounce.onEvent(now + 1000)).isEqualTo(MIN_WINDOW);
+    }
+
+    @Test
+    void waitsLongerThanTypicalGapWithinBursts() {
+        var debounce = new AdaptiveDebounce(50, 500);
+        long now = 0;
+        long window = 0;
+        for (int burst = 0; burst < 5; ++burst) {
+            now += 1000;
+            for (int event = 0; event < 10; ++event) {
+                window = debounce.onEvent(now);
+                now += 20;
+            }
+            debounce.fired(now + window);
+        }
+        assertThat(window).isBetween(30L, 50L);
+    }
+
+    @Test
+    void neverExceedsMaxLatency() {
+        var debounce = new AdaptiveDebounce(50, 300);
+        for (long now = 0; now < 300; now += 40) {
+            assertThat(now + debounce.onEvent(now)).isLessThanOrEqualTo(300);
+        }
+    }
+
+    @Test
+    void learnsFromFiringTooEarly() {
+        var debounce = new AdaptiveDebounce(50, 500);
+        long now = 0;
+        for (int save = 0; save < 5; ++save) {
+            now += 1000;
+            now += debounce.onEvent(now);
+            debounce.fired(now);
+        }
+        // more events of the same save arrive right after firing
+        for (int save = 0; save < 3; ++save) {
+            now += 1000;
+            now += debounce.onEvent(now);
+            debounce.fired(now);
+            now += 30;
+            now += debounce.onEvent(now);
+            debounce.fired(now);
+        }
+        assertThat(debounce.onEvent(now + 1000)).isGreaterThan(MIN_WINDOW);
+    }
+}
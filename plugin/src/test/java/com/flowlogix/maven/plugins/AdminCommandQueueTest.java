@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.AdminCommandQueue.AppState;
+import com.flowlogix.maven.plugins.Deployer.CommandResult;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdminCommandQueueTest {
+    private final CommonDevMojo mojo = mock(CommonDevMojo.class);
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private AdminCommandQueue queue;
+
+    @BeforeEach
+    void setup() {
+        when(mojo.getLog()).thenReturn(mock(Log.class));
+        queue = new AdminCommandQueue(mojo);
+    }
+
+    @Test
+    void skipsCommandsWithoutEffect() {
+        assertThat(enable("app", 1).join()).isEqualTo(CommandResult.SUCCESS);
+        assertThat(enable("app", 1).join()).isEqualTo(CommandResult.SUCCESS);
+        enable("app", 2).join();
+        queue.submit("app", AppState.DISABLED, null, true, command("disable app", CommandResult.SUCCESS)).join();
+        queue.submit("app", AppState.DISABLED, null, true, command("disable app", CommandResult.SUCCESS)).join();
+        enable("app", 2).join();
+        assertThat(sent).containsExactly("enable app 1", "enable app 2", "disable app", "enable app 2");
+    }
+
+    @Test
+    void failedCommandForgetsState() {
+        enable("app", 1).join();
+        queue.submit("app", AppState.ENABLED, () -> 1, true, command("enable app 1", CommandResult.ERROR)).join();
+        queue.submit("app", AppState.ENABLED, () -> 1, false, command("deploy app", CommandResult.ERROR)).join();
+        enable("app", 1).join();
+        assertThat(sent).containsExactly("enable app 1", "deploy app", "enable app 1");
+    }
+
+    @Test
+    void fingerprintOfEnabledApplication() {
+        assertThat(queue.enabledFingerprint("app")).isEmpty();
+        enable("app", 2).join();
+        assertThat(queue.enabledFingerprint("app")).hasValue(2);
+        queue.submit("app", AppState.DISABLED, null, true, command("disable app", CommandResult.SUCCESS)).join();
+        assertThat(queue.enabledFingerprint("app")).isEmpty();
+        queue.assume("app", AppState.ENABLED, 3);
+        assertThat(queue.enabledFingerprint("app")).hasValue(3);
+    }
+
+    @Test
+    void keepsOrderPerApplication() {
+        var blocked = new CompletableFuture<CommandResult>();
+        var first = queue.submit("app", AppState.DISABLED, null, true, () -> {
+            sent.add("disable app");
+            return blocked;
+        });
+        var second = enable("app", 1);
+        var other = enable("other", 1);
+        assertThat(other.join()).isEqualTo(CommandResult.SUCCESS);
+        assertThat(second).isNotDone();
+        blocked.complete(CommandResult.SUCCESS);
+        assertThat(first.join()).isEqualTo(CommandResult.SUCCESS);
+        second.join();
+        assertThat(sent).containsExactly("disable app", "enable other 1", "enable app 1");
+    }
+
+    private CompletableFuture<CommandResult> enable(String application, long fingerprint) {
+        return queue.submit(application, AppState.ENABLED, () -> fingerprint, true,
+                command("enable %s %d".formatted(application, fingerprint), CommandResult.SUCCESS));
+    }
+
+    private Supplier<CompletableFuture<CommandResult>> command(String command, CommandResult result) {
+        return () -> {
+            sent.add(command);
+            return CompletableFuture.completedFuture(result);
+        };
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.Deployer.CommandResponse;
+import com.flowlogix.maven.plugins.Deployer.ServerLocations;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminResponseDecoderTest {
+    private static final String LOCATIONS = """
+            {"message":"","command":"__locations AdminCommand","exit_code":"SUCCESS",
+            "properties":{"Instance-Root":"/payara/domains/domain1","Base-Root":"/payara","Pid":"4242"},
+            "extraProperties":{"nested":{"list":[1,2,{"a":"b"}]}},"children":[]}""";
+
+    @Test
+    void plainResponse() throws IOException {
+        CommandResponse response = decode(200, LOCATIONS);
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.report().command()).isEqualTo("__locations AdminCommand");
+        var locations = ServerLocations.of(response.report());
+        assertThat(locations.properties().instanceRoot()).isEqualTo("/payara/domains/domain1");
+        assertThat(locations.properties().pid()).isEqualTo("4242");
+        assertThat(locations.properties().configDir()).isNull();
+    }
+
+    @Test
+    void wrappedResponse() throws IOException {
+        CommandResponse response = decode(200, "{\"action-report\":" + LOCATIONS.replace('\n', ' ') + "}");
+        assertThat(response.report().properties()).containsEntry("Base-Root", "/payara");
+    }
+
+    @Test
+    void serverSentEventsUseLastData() throws IOException {
+        CommandResponse response = decode(200, """
+                event: progress
+                data: {"message":"deploying","exit_code":"SUCCESS"}
+
+                event: complete
+                data: {"message":"Application deploy failed","exit_code":"FAILURE"}
+
+                """);
+        assertThat(response.report().message()).isEqualTo("Application deploy failed");
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.body()).isEqualTo("Application deploy failed");
+    }
+
+    @Test
+    void textResponse() throws IOException {
+        CommandResponse response = decode(401, "<html>Unauthorized</html>");
+        assertThat(response.report()).isNull();
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.body()).isEqualTo("<html>Unauthorized</html>");
+        assertThat(decode(200, "").body()).isEmpty();
+    }
+
+    @Test
+    void malformedResponse() throws IOException {
+        CommandResponse response = decode(200, "{\"message\": ");
+        assertThat(response.report()).isNull();
+        assertThat(response.body()).startsWith("Invalid response");
+    }
+
+    private static CommandResponse decode(int statusCode, String body) throws IOException {
+        return AdminResponseDecoder.decode(statusCode, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppCdsTest {
+    private static final String SHARED_ARCHIVE = "-XX:SharedArchiveFile=/a&b/appcds/server-89abcdef.jsa";
+    private static final String DOMAIN_XML = """
+            <domain>
+              <configs>
+                <config name="server-config">
+                  <java-config classpath-suffix="" debug-options="-agentlib:jdwp">
+                    <jvm-options>-server</jvm-options>
+                    <jvm-options>-XX:+AutoCreateSharedArchive</jvm-options>
+                    <jvm-options>-XX:SharedArchiveFile=/d/domain1/appcds/server-0123abcd.jsa</jvm-options>
+                  </java-config>
+                </config>
+                <config name="default-config">
+                  <java-config>
+                    <jvm-options>-server</jvm-options>
+                  </java-config>
+                </config>
+              </configs>
+            </domain>
+            """;
+
+    @TempDir
+    Path domain;
+
+    @Test
+    void replacesOptionsOfServerConfig() {
+        String configured = AppCds.configure(DOMAIN_XML, List.of(SHARED_ARCHIVE));
+        assertThat(configured).doesNotContain("AutoCreateSharedArchive", "0123abcd").contains("""
+                      <java-config classpath-suffix="" debug-options="-agentlib:jdwp">
+                        <jvm-options>-XX:SharedArchiveFile=/a&amp;b/appcds/server-89abcdef.jsa</jvm-options>
+                        <jvm-options>-server</jvm-options>
+                      </java-config>
+                """).containsOnlyOnce("SharedArchiveFile");
+        assertThat(AppCds.configure(configured, List.of(SHARED_ARCHIVE)))
+                .isEqualTo(configured);
+    }
+
+    @Test
+    void removesOptions() {
+        assertThat(AppCds.configure(DOMAIN_XML, List.of()))
+                .doesNotContain("jsa", "AutoCreateSharedArchive").contains("<jvm-options>-server</jvm-options>");
+        assertThat(AppCds.configure("<domain/>", List.of())).isNull();
+    }
+
+    @Test
+    void keepsOptionsOfUser() {
+        String own = DOMAIN_XML.replace("/d/domain1/appcds/server-0123abcd.jsa", "/opt/own.jsa");
+        assertThat(AppCds.configure(own, List.of())).isEqualTo(own);
+    }
+
+    @Test
+    void javaHomeOfDomain() throws IOException {
+        Path installRoot = domain.resolve("glassfish");
+        var environment = Map.of("JAVA_HOME", "/jdk/home");
+        assertThat(AppCds.javaHome(DOMAIN_XML, installRoot, Map.of())).isNull();
+        assertThat(AppCds.javaHome(DOMAIN_XML, installRoot, environment)).isEqualTo(Path.of("/jdk/home"));
+        Files.createDirectories(installRoot.resolve("config"));
+        Files.writeString(installRoot.resolve("config/asenv.conf"), "AS_IMQ_LIB=../mq/lib\nAS_JAVA=\"/jdk/as\"\n");
+        assertThat(AppCds.javaHome(DOMAIN_XML, installRoot, environment)).isEqualTo(Path.of("/jdk/as"));
+        String javaHome = DOMAIN_XML.replace("<java-config classpath-suffix=\"\"",
+                "<java-config java-home=\"/jdk/domain\" classpath-suffix=\"\"");
+        assertThat(AppCds.javaHome(javaHome, installRoot, Map.of())).isEqualTo(Path.of("/jdk/domain"));
+        assertThat(AppCds.javaHome(javaHome.replace("/jdk/domain", "${com.sun.aas.javaRoot}"), installRoot, Map.of()))
+                .isEqualTo(Path.of("/jdk/as"));
+    }
+
+    @Test
+    void featureVersionOfJdk() throws IOException {
+        assertThat(AppCds.featureVersion(domain)).isEmpty();
+        Files.writeString(domain.resolve("release"), "IMPLEMENTOR=\"Eclipse Adoptium\"\nJAVA_VERSION=\"17.0.12\"\n");
+        assertThat(AppCds.featureVersion(domain)).hasValue(17);
+        Files.writeString(domain.resolve("release"), "JAVA_VERSION=\"1.8.0_422\"\n");
+        assertThat(AppCds.featureVersion(domain)).hasValue(8);
+    }
+
+    @Test
+    void archivesAtExitUntilArchiveExists() throws IOException {
+        Path archive = domain.resolve("server.jsa");
+        assertThat(AppCds.options(archive, 17)).containsExactly("-XX:ArchiveClassesAtExit=" + archive);
+        Files.createFile(archive);
+        assertThat(AppCds.options(archive, 17)).containsExactly("-XX:SharedArchiveFile=" + archive);
+        assertThat(AppCds.options(archive, 21))
+                .containsExactly("-XX:+AutoCreateSharedArchive", "-XX:SharedArchiveFile=" + archive);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ChangePipelineTest {
+    private final Path first = Path.of("first");
+    private final Path second = Path.of("second");
+    private final Path third = Path.of("third");
+
+    @Test
+    void onlyNewestStateIsDeployed() throws InterruptedException {
+        var compiling = new CountDownLatch(1);
+        var newerChanges = new CountDownLatch(1);
+        var done = new CountDownLatch(1);
+        List<Set<Path>> compiled = new CopyOnWriteArrayList<>();
+        List<Set<Path>> deployed = new CopyOnWriteArrayList<>();
+        try (var pipeline = new ChangePipeline(mock(Log.class), List.of(
+                new ChangePipeline.Stage("compile", batch -> {
+                    compiled.add(batch.files);
+                    compiling.countDown();
+                    await(newerChanges);
+                    return true;
+                }, true),
+                new ChangePipeline.Stage("deploy", batch -> deployed.add(batch.files), true),
+                new ChangePipeline.Stage("notify", batch -> {
+                    done.countDown();
+                    return true;
+                }, false)), true)) {
+            pipeline.submit(Set.of(first));
+            assertThat(compiling.await(5, TimeUnit.SECONDS)).isTrue();
+            pipeline.submit(Set.of(second));
+            pipeline.submit(Set.of(third));
+            newerChanges.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(compiled).containsExactly(Set.of(first), Set.of(first, second, third));
+        assertThat(deployed).containsExactly(Set.of(first, second, third));
+    }
+
+    @Test
+    void classFilesOfAbandonedCompilationAreCarriedOver() throws InterruptedException {
+        var compiling = new CountDownLatch(1);
+        var newerChanges = new CountDownLatch(1);
+        var done = new CountDownLatch(1);
+        Path classFile = Path.of("First.class");
+        List<Set<Path>> synchronizedClassFiles = new CopyOnWriteArrayList<>();
+        try (var pipeline = new ChangePipeline(mock(Log.class), List.of(
+                new ChangePipeline.Stage("compile", batch -> {
+                    batch.compilation = new IncrementalCompiler.Result(true,
+                            batch.files.contains(second) ? Set.of() : Set.of(classFile), false)
+                            .including(batch.previousClassFiles);
+                    compiling.countDown();
+                    await(newerChanges);
+                    return true;
+                }, true),
+                new ChangePipeline.Stage("sync", batch -> {
+                    synchronizedClassFiles.add(batch.compilation.classFiles());
+                    done.countDown();
+                    return true;
+                }, true)), false)) {
+            pipeline.submit(Set.of(first));
+            assertThat(compiling.await(5, TimeUnit.SECONDS)).isTrue();
+            pipeline.submit(Set.of(second));
+            newerChanges.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(synchronizedClassFiles).containsExactly(Set.of(classFile));
+    }
+
+    @Test
+    void stageCanEndBatch() throws InterruptedException {
+        var classified = new CountDownLatch(1);
+        var done = new CountDownLatch(1);
+        List<Set<Path>> notified = new CopyOnWriteArrayList<>();
+        try (var pipeline = new ChangePipeline(mock(Log.class), List.of(
+                new ChangePipeline.Stage("classify", batch -> {
+                    classified.countDown();
+                    return !batch.files.contains(first);
+                }, true),
+                new ChangePipeline.Stage("notify", batch -> {
+                    notified.add(batch.files);
+                    done.countDown();
+                    return true;
+                }, false)), false)) {
+            pipeline.submit(Set.of(first));
+            assertThat(classified.await(5, TimeUnit.SECONDS)).isTrue();
+            pipeline.submit(Set.of(second));
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(notified).containsExactly(Set.of(second));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
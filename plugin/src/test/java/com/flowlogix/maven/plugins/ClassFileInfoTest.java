@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClassFileInfoTest {
+    @SuppressWarnings("unused")
+    private List<IncrementalCompiler> signatureOnlyReference;
+
+    static class Inner {
+        Deployer.CommandResult result() {
+            return Deployer.CommandResult.SUCCESS;
+        }
+    }
+
+    @Test
+    void readsNameSourceAndReferences() throws IOException {
+        var info = ClassFileInfo.read(classBytes(ClassFileInfoTest.class));
+        assertThat(info.name()).isEqualTo("com/flowlogix/maven/plugins/ClassFileInfoTest");
+        assertThat(info.sourceFile()).isEqualTo("ClassFileInfoTest.java");
+        assertThat(info.references()).contains("com/flowlogix/maven/plugins/ClassFileInfo",
+                "com/flowlogix/maven/plugins/IncrementalCompiler")
+                .doesNotContain(info.name());
+    }
+
+    @Test
+    void readsNestedClass() throws IOException {
+        var info = ClassFileInfo.read(classBytes(Inner.class));
+        assertThat(info.name()).isEqualTo("com/flowlogix/maven/plugins/ClassFileInfoTest$Inner");
+        assertThat(info.sourceFile()).isEqualTo("ClassFileInfoTest.java");
+        assertThat(info.references()).contains("com/flowlogix/maven/plugins/Deployer$CommandResult");
+    }
+
+    @Test
+    @SuppressWarnings("checkstyle:MagicNumber")
+    void rejectsNonClassFile() {
+        assertThatThrownBy(() -> ClassFileInfo.read(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void shapeIgnoresMethodBodies(@TempDir Path tempDir) throws IOException {
+        int original = shape(tempDir, "class Shape { int value() { return 1; } }");
+        assertThat(shape(tempDir, "class Shape { int value() { return 2; } }")).isEqualTo(original);
+        assertThat(shape(tempDir, "class Shape { long value() { return 1; } }")).isNotEqualTo(original);
+        assertThat(shape(tempDir, "class Shape { int field; int value() { return 1; } }")).isNotEqualTo(original);
+    }
+
+    private static int shape(Path directory, String source) throws IOException {
+        Path sourceFile = Files.writeString(directory.resolve("Shape.java"), source);
+        assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-d", directory.toString(), sourceFile.toString())).isZero();
+        return ClassFileInfo.read(Files.readAllBytes(directory.resolve("Shape.class"))).shape();
+    }
+
+    private static byte[] classBytes(Class<?> type) throws IOException {
+        try (InputStream stream = type.getResourceAsStream(
+                type.getName().substring(type.getPackageName().length() + 1) + ".class")) {
+            return stream.readAllBytes();
+        }
+    }
+}
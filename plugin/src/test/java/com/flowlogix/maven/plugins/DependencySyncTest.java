@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DependencySyncTest {
+    @TempDir
+    Path repository;
+    @TempDir
+    Path warlibs;
+
+    @Test
+    void addsOnlyMissingJars() throws IOException {
+        var sources = Map.of("a-1.jar", jar("a-1.jar", "a"), "b-1.jar", jar("b-1.jar", "b"));
+        var first = DependencySync.synchronize(sources, warlibs);
+        assertThat(first.added()).isEqualTo(2);
+        assertThat(first.isRestartRequired()).isTrue();
+        assertThat(warlibs.resolve("a-1.jar")).hasContent("a");
+
+        var second = DependencySync.synchronize(sources, warlibs);
+        assertThat(second).isEqualTo(new DependencySync.Result(0, 0, 0, 2, 0));
+        assertThat(second.isRestartRequired()).isFalse();
+    }
+
+    @Test
+    void replacesChangedAndRemovesStaleJars() throws IOException {
+        Files.writeString(warlibs.resolve("a-1.jar"), "old");
+        Files.writeString(warlibs.resolve("stale-1.jar"), "stale");
+        Path copied = Files.writeString(warlibs.resolve("b-1.jar"), "b");
+        Files.setLastModifiedTime(copied, FileTime.from(Instant.EPOCH));
+
+        var result = DependencySync.synchronize(Map.of("a-1.jar", jar("a-1.jar", "new"),
+                "b-1.jar", jar("b-1.jar", "b")), warlibs);
+        assertThat(result).isEqualTo(new DependencySync.Result(0, 1, 1, 1, result.linked()));
+        assertThat(warlibs.resolve("a-1.jar")).hasContent("new");
+        assertThat(warlibs.resolve("stale-1.jar")).doesNotExist();
+    }
+
+    @Test
+    void replacesChangedJarWithSameSizeAndTimestamp() throws IOException {
+        Path source = jar("a-1.jar", "new");
+        Path copied = Files.writeString(warlibs.resolve("a-1.jar"), "old");
+        Files.setLastModifiedTime(copied, Files.getLastModifiedTime(source));
+
+        assertThat(DependencySync.synchronize(Map.of("a-1.jar", source), warlibs).updated()).isOne();
+        assertThat(warlibs.resolve("a-1.jar")).hasContent("new");
+    }
+
+    @Test
+    void copiesWithGoalUnlessScopeIsLimited() throws IOException {
+        var mojo = mock(CommonDevMojo.class);
+        when(mojo.getLog()).thenReturn(mock(Log.class));
+        mojo.project = new MavenProject();
+        var execution = new PluginExecution();
+        execution.setId("default-cli");
+        var configuration = new Xpp3Dom("configuration");
+        execution.setConfiguration(configuration);
+        var plugin = new Plugin();
+        plugin.setArtifactId(CommonDevMojo.MAVEN_DEPENDENCY_PLUGIN);
+        plugin.addExecution(execution);
+        mojo.project.getBuild().addPlugin(plugin);
+        // test dependencies are not resolved for the goal
+        assertThat(new DependencySync(mojo).synchronize(warlibs)).isNull();
+
+        var includeScope = new Xpp3Dom("includeScope");
+        includeScope.setValue("runtime");
+        configuration.addChild(includeScope);
+        assertThat(new DependencySync(mojo).synchronize(warlibs)).isEqualTo(new DependencySync.Result(0, 0, 0, 0, 0));
+    }
+
+    @Test
+    void clean() throws IOException {
+        assertThat(DependencySync.clean(warlibs)).isZero();
+        Files.writeString(warlibs.resolve("a-1.jar"), "a");
+        assertThat(DependencySync.clean(warlibs)).isOne();
+        assertThat(warlibs).isEmptyDirectory();
+    }
+
+    @Test
+    void fileName() {
+        var artifact = new DefaultArtifact("g", "a", "1.0-SNAPSHOT", "runtime", "jar", "jdk11",
+                new DefaultArtifactHandler("jar"));
+        assertThat(DependencySync.fileName(artifact, false)).isEqualTo("a-1.0-SNAPSHOT-jdk11.jar");
+        assertThat(DependencySync.fileName(artifact, true)).isEqualTo("a-jdk11.jar");
+    }
+
+    private Path jar(String name, String content) throws IOException {
+        return Files.writeString(repository.resolve(name), content);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.DevSessionState.Session;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DevSessionStateTest {
+    @TempDir
+    Path stateDir;
+    private final CommonDevMojo mojo = mock(CommonDevMojo.class);
+
+    @BeforeEach
+    void setup() {
+        mojo.project = new MavenProject();
+        mojo.project.setFile(stateDir.resolve("pom.xml").toFile());
+        when(mojo.getStateDir()).thenReturn(stateDir);
+        when(mojo.getLog()).thenReturn(mock(Log.class));
+    }
+
+    @Test
+    void persistedBetweenSessions() {
+        var session = new Session("http://localhost:4848", "1234", "app", -42, "1.0");
+        assertThat(new DevSessionState(mojo).load()).isNull();
+        new DevSessionState(mojo).save(session);
+        assertThat(new DevSessionState(mojo).load()).isEqualTo(session);
+        new DevSessionState(mojo).clear();
+        assertThat(new DevSessionState(mojo).load()).isNull();
+    }
+
+    @Test
+    void ignoresUnreadableState() throws IOException {
+        Files.writeString(stateDir.resolve("dev-session.json"), "{\"pid\":");
+        assertThat(new DevSessionState(mojo).load()).isNull();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DomainStartTest {
+    private final CommonDevMojo mojo = mock(CommonDevMojo.class);
+    private final Xpp3Dom configuration = new Xpp3Dom("configuration");
+    @TempDir
+    Path basedir;
+
+    @BeforeEach
+    void setup() {
+        when(mojo.getLog()).thenReturn(mock(Log.class));
+        mojo.project = new MavenProject();
+        mojo.project.setFile(basedir.resolve("pom.xml").toFile());
+        var execution = new PluginExecution();
+        execution.setId(DomainStart.EXECUTION);
+        execution.setConfiguration(configuration);
+        var plugin = new Plugin();
+        plugin.setGroupId("org.codehaus.mojo");
+        plugin.setArtifactId("exec-maven-plugin");
+        plugin.addExecution(execution);
+        mojo.project.getBuild().addPlugin(plugin);
+    }
+
+    @Test
+    void commandOfExecution() throws IOException {
+        assertThat(new DomainStart(mojo).command()).isNull();
+        add(configuration, "skip", "true");
+        add(configuration, "executable", "bin/asadmin");
+        var arguments = new Xpp3Dom("arguments");
+        add(arguments, "argument", "start-domain");
+        add(arguments, "argument", "domain1");
+        configuration.addChild(arguments);
+        assertThat(new DomainStart(mojo).command()).isEqualTo(new DomainStart.Command(
+                List.of("bin/asadmin", "start-domain", "domain1"), basedir));
+        assertThat(new DomainStart(mojo).arguments()).containsExactly("start-domain", "domain1");
+
+        Files.createDirectories(basedir.resolve("bin"));
+        Files.createFile(basedir.resolve("bin/asadmin"));
+        assertThat(new DomainStart(mojo).command().command().get(0))
+                .isEqualTo(basedir.resolve("bin/asadmin").toString());
+    }
+
+    @Test
+    void unsupportedConfigurationExecutesGoal() {
+        add(configuration, "executable", "asadmin");
+        add(configuration, "environmentVariables", "");
+        assertThat(new DomainStart(mojo).command()).isNull();
+    }
+
+    @Test
+    void exitCodeDecidesSuccess() {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        assertThat(new DomainStart(mojo).start(new DomainStart.Command(List.of(java, "-version"), basedir)))
+                .isTrue();
+        assertThat(new DomainStart(mojo).start(new DomainStart.Command(List.of(java, "-invalid"), basedir)))
+                .isFalse();
+        assertThat(new DomainStart(mojo).start(new DomainStart.Command(List.of("no-such-command"), basedir)))
+                .isFalse();
+    }
+
+    private static void add(Xpp3Dom parent, String name, String value) {
+        var child = new Xpp3Dom(name);
+        child.setValue(value);
+        parent.addChild(child);
+    }
+}
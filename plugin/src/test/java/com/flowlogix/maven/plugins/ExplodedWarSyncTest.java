@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExplodedWarSyncTest {
+    @TempDir
+    Path explodedWar;
+
+    @Test
+    @SuppressWarnings("checkstyle:MagicNumber")
+    void fingerprintChangesWithWebInfStamps() throws IOException {
+        var mojo = mock(CommonDevMojo.class);
+        when(mojo.getExplodedWarDir()).thenReturn(explodedWar);
+        when(mojo.getLog()).thenReturn(mock(Log.class));
+        var warSync = new ExplodedWarSync(mojo);
+        Path classFile = Files.writeString(Files.createDirectories(explodedWar.resolve("WEB-INF/classes"))
+                .resolve("App.class"), "class");
+        Files.writeString(explodedWar.resolve("index.xhtml"), "page");
+        long fingerprint = warSync.fingerprint();
+        assertThat(warSync.fingerprint()).isEqualTo(fingerprint);
+
+        Files.writeString(explodedWar.resolve("index.xhtml"), "changed page");
+        assertThat(warSync.fingerprint()).isEqualTo(fingerprint);
+
+        Files.setLastModifiedTime(classFile,
+                FileTime.fromMillis(Files.getLastModifiedTime(classFile).toMillis() + 2000));
+        assertThat(warSync.fingerprint()).isNotEqualTo(fingerprint);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FaceletsGraphTest {
+    @TempDir
+    Path webapp;
+    private final FaceletsGraph graph = new FaceletsGraph();
+
+    @BeforeEach
+    void webapp() throws IOException {
+        write("WEB-INF/templates/main.xhtml", """
+                <html xmlns:ui="jakarta.faces.facelets">
+                    <ui:include src="header.xhtml"/>
+                    <ui:insert name="content"/>
+                </html>""");
+        write("WEB-INF/templates/header.xhtml", "<ui:composition>header</ui:composition>");
+        write("index.xhtml", """
+                <ui:composition xmlns:ui="jakarta.faces.facelets" template="/WEB-INF/templates/main.xhtml">
+                    <ui:define name="content">index</ui:define>
+                </ui:composition>""");
+        write("admin/users.xhtml", """
+                <html xmlns:ui="jakarta.faces.facelets" xmlns:app="jakarta.faces.composite/app">
+                    <ui:include src="../WEB-INF/parts/table.xhtml"/>
+                    <app:button/>
+                </html>""");
+        write("WEB-INF/parts/table.xhtml", "<table/>");
+        write("resources/app/button.xhtml", "<cc:implementation/>");
+        write("about.xhtml", "<html>about</html>");
+    }
+
+    @Test
+    void templateChangeAffectsViewsUsingIt() {
+        assertThat(graph.affectedViews(webapp, Set.of(webapp.resolve("WEB-INF/templates/header.xhtml"))))
+                .containsExactly("/index.xhtml");
+        assertThat(graph.affectedViews(webapp, Set.of(webapp.resolve("WEB-INF/parts/table.xhtml"))))
+                .containsExactly("/admin/users.xhtml");
+        assertThat(graph.affectedViews(webapp, Set.of(webapp.resolve("about.xhtml"))))
+                .containsExactly("/about.xhtml");
+    }
+
+    @Test
+    void compositeComponentChangeAffectsViewsUsingIt() {
+        assertThat(graph.affectedViews(webapp, Set.of(webapp.resolve("resources/app/button.xhtml"),
+                webapp.resolve("about.xhtml")))).containsExactly("/about.xhtml", "/admin/users.xhtml");
+    }
+
+    @Test
+    void referencesAreUpdatedWhenFilesChange() throws IOException {
+        Path about = write("about.xhtml", """
+                <ui:composition xmlns:ui="jakarta.faces.facelets" template="WEB-INF/templates/main.xhtml"/>""");
+        assertThat(graph.affectedViews(webapp, Set.of(webapp.resolve("WEB-INF/templates/main.xhtml"))))
+                .containsExactly("/about.xhtml", "/index.xhtml");
+        Files.delete(about);
+        assertThat(graph.affectedViews(webapp, Set.of(webapp.resolve("WEB-INF/templates/main.xhtml"))))
+                .containsExactly("/index.xhtml");
+    }
+
+    @Test
+    void unknownUsageAffectsAllViews() throws IOException {
+        Path unused = write("WEB-INF/tags/unused.xhtml", "<ui:composition/>");
+        assertThat(graph.affectedViews(webapp, Set.of(unused))).isNull();
+        assertThat(graph.affectedViews(webapp, Set.of(webapp.resolve("WEB-INF/web.xml")))).isNull();
+    }
+
+    @Test
+    void dynamicIncludesAreAlwaysAffected() throws IOException {
+        write("dynamic.xhtml", "<ui:include xmlns:ui=\"jakarta.faces.facelets\" src=\"#{bean.page}\"/>");
+        assertThat(graph.affectedViews(webapp, Set.of(webapp.resolve("about.xhtml"))))
+                .containsExactly("/about.xhtml", "/dynamic.xhtml");
+    }
+
+    private Path write(String path, String content) throws IOException {
+        Path file = webapp.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileIndexTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void scanReportsCreatedModifiedAndDeletedFiles() throws IOException {
+        var index = new FileIndex();
+        Path unchanged = Files.writeString(root.resolve("unchanged.txt"), "same");
+        Path modified = Files.writeString(root.resolve("modified.txt"), "before");
+        Path deleted = Files.writeString(root.resolve("deleted.txt"), "gone");
+        assertThat(index.scan(root)).containsExactlyInAnyOrder(unchanged, modified, deleted);
+
+        Files.writeString(modified, "after, with a different size");
+        Files.delete(deleted);
+        Path created = Files.writeString(Files.createDirectories(root.resolve("sub")).resolve("created.txt"), "new");
+        assertThat(index.scan(root)).containsExactlyInAnyOrder(modified, deleted, created);
+        assertThat(index.scan(root)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void scanOfSubdirectoryOnlyReportsItsFiles() throws IOException {
+        var index = new FileIndex();
+        Path sub = Files.createDirectories(root.resolve("sub"));
+        Path outside = Files.writeString(root.resolve("outside.txt"), "outside");
+        index.scan(root);
+        Files.delete(outside);
+        Path inside = Files.writeString(sub.resolve("inside.txt"), "inside");
+        assertThat(index.scan(sub)).containsExactly(inside);
+    }
+
+    @Test
+    void updateTracksWatchServiceEvents() throws IOException {
+        var index = new FileIndex();
+        Path file = Files.writeString(root.resolve("file.txt"), "content");
+        index.update(file);
+        assertThat(index.scan(root)).isEmpty();
+        Files.delete(file);
+        index.update(file);
+        assertThat(index.scan(root)).isEmpty();
+    }
+
+    @Test
+    void shallowScanKeepsDeeperFilesUnlessTheirDirectoryIsGone() throws IOException {
+        var index = new FileIndex();
+        Path kept = Files.writeString(Files.createDirectories(root.resolve("kept/deep")).resolve("kept.txt"), "kept");
+        Path gone = Files.writeString(Files.createDirectories(root.resolve("gone/deep")).resolve("gone.txt"), "gone");
+        index.scan(root);
+        Files.writeString(kept, "modified, but below the scanned depth");
+        Files.delete(gone);
+        Files.delete(gone.getParent());
+        Files.delete(gone.getParent().getParent());
+        Path created = Files.writeString(root.resolve("created.txt"), "new");
+        assertThat(index.scan(root, 1)).containsExactlyInAnyOrder(created, gone);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.scan(root)).containsExactly(kept);
+    }
+
+    @Test
+    void updateOfDeletedDirectoryRemovesItsFiles() throws IOException {
+        var index = new FileIndex();
+        Path directory = Files.createDirectories(root.resolve("sub"));
+        Path file = Files.writeString(directory.resolve("file.txt"), "content");
+        index.scan(root);
+        Files.delete(file);
+        Files.delete(directory);
+        assertThat(index.update(directory)).containsExactlyInAnyOrder(directory, file);
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void touchedFileContentIsUnchanged() throws IOException {
+        var index = new FileIndex();
+        Path file = Files.writeString(root.resolve("file.txt"), "content");
+        index.scan(root);
+        index.hashAll();
+        touch(file);
+        assertThat(index.isContentUnchanged(file)).isTrue();
+        Files.writeString(file, "changed");
+        touch(file);
+        assertThat(index.isContentUnchanged(file)).isFalse();
+        Files.delete(file);
+        assertThat(index.isContentUnchanged(file)).isFalse();
+    }
+
+    @Test
+    void contentHashesSurviveSaveAndLoad() throws IOException {
+        var index = new FileIndex();
+        Path file = Files.writeString(root.resolve("file.txt"), "content");
+        index.scan(root);
+        index.hashAll();
+        Path indexFile = root.resolve("state").resolve("index");
+        index.save(indexFile, root);
+
+        var loaded = new FileIndex();
+        loaded.load(indexFile, root);
+        assertThat(loaded.scan(root)).containsExactly(indexFile);
+        touch(file);
+        assertThat(loaded.isContentUnchanged(file)).isTrue();
+    }
+
+    @SuppressWarnings("checkstyle:MagicNumber")
+    private static void touch(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+    }
+}
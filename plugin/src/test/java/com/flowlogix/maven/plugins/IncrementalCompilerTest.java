@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Stream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IncrementalCompilerTest {
+    @TempDir
+    Path baseDir;
+    private Path sources;
+    private Path classes;
+    private final CommonDevMojo mojo = mock(CommonDevMojo.class);
+
+    @BeforeEach
+    void setup() throws IOException {
+        sources = Files.createDirectories(baseDir.resolve("src/main/java"));
+        classes = Files.createDirectories(baseDir.resolve("target/classes"));
+        mojo.project = new MavenProject();
+        mojo.project.setBuild(new Build());
+        mojo.project.getBuild().setOutputDirectory(classes.toString());
+        mojo.project.addCompileSourceRoot(sources.toString());
+        when(mojo.getSrcMainDir()).thenReturn(baseDir.resolve("src/main"));
+        when(mojo.getLog()).thenReturn(mock(Log.class));
+    }
+
+    @Test
+    void shapeChangeRecompilesTransitiveDependents() throws IOException {
+        Path base = write("Base", "class Base { void greet() { } }");
+        write("Middle", "class Middle extends Base { }");
+        write("Leaf", "class Leaf { void use(Middle middle) { middle.greet(); } }");
+        compileAll();
+        byte[] leaf = Files.readAllBytes(classes.resolve("Leaf.class"));
+        var compiler = new IncrementalCompiler(mojo);
+
+        write("Base", "class Base { void greet() { System.out.println(); } }");
+        var bodyOnly = compiler.compile(Set.of(base));
+        assertThat(bodyOnly.success()).isTrue();
+        assertThat(bodyOnly.structural()).isFalse();
+        assertThat(bodyOnly.classFiles()).containsExactly(classes.resolve("Base.class"));
+
+        write("Base", "class Base { void hello() { } }");
+        var renamed = compiler.compile(Set.of(base));
+        assertThat(renamed.success()).isFalse();
+        // Leaf only references Middle, it fails to compile together with Middle, so both are restored
+        assertThat(renamed.classFiles()).containsExactly(classes.resolve("Base.class"));
+        assertThat(classes.resolve("Leaf.class")).hasBinaryContent(leaf);
+    }
+
+    @Test
+    void constantChangeRecompilesAllSources() throws IOException {
+        Path constants = write("Constants", "class Constants { static final int VALUE = 1; }");
+        write("User", "class User { int value() { return Constants.VALUE; } }");
+        compileAll();
+        byte[] user = Files.readAllBytes(classes.resolve("User.class"));
+        var compiler = new IncrementalCompiler(mojo);
+
+        write("Constants", "class Constants { static final int VALUE = 2; }");
+        var result = compiler.compile(Set.of(constants));
+        assertThat(result.success()).isTrue();
+        assertThat(result.classFiles()).contains(classes.resolve("User.class"));
+        assertThat(Files.readAllBytes(classes.resolve("User.class"))).isNotEqualTo(user);
+    }
+
+    @Test
+    void failedCompilationKeepsClassFiles() throws IOException {
+        Path broken = write("Broken", "class Broken { class Inner { } }");
+        compileAll();
+        byte[] inner = Files.readAllBytes(classes.resolve("Broken$Inner.class"));
+        var compiler = new IncrementalCompiler(mojo);
+
+        write("Broken", "class Broken { missing }");
+        var result = compiler.compile(Set.of(broken));
+        assertThat(result.success()).isFalse();
+        assertThat(result.classFiles()).isEmpty();
+        assertThat(classes.resolve("Broken$Inner.class")).hasBinaryContent(inner);
+
+        write("Broken", "class Broken { }");
+        assertThat(compiler.compile(Set.of(broken)).classFiles()).containsExactlyInAnyOrder(
+                classes.resolve("Broken.class"), classes.resolve("Broken$Inner.class"));
+        assertThat(classes.resolve("Broken$Inner.class")).doesNotExist();
+    }
+
+    private Path write(String className, String source) throws IOException {
+        return Files.writeString(sources.resolve(className + ".java"), source);
+    }
+
+    /**
+     * Compiles all sources, as a full build would before dev mode starts.
+     */
+    private void compileAll() throws IOException {
+        try (Stream<Path> files = Files.list(sources)) {
+            String[] arguments = Stream.concat(Stream.of("-d", classes.toString()), files.map(Path::toString))
+                    .toArray(String[]::new);
+            assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null, arguments)).isZero();
+        }
+    }
+}
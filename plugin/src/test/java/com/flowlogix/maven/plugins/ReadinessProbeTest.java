@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadinessProbeTest {
+    @Test
+    void readyWithinDeadline() throws InterruptedException {
+        var checks = new AtomicInteger();
+        assertThat(ReadinessProbe.await(() -> checks.incrementAndGet() == 3, Duration.ofSeconds(5), null)).isTrue();
+        assertThat(checks).hasValue(3);
+    }
+
+    @Test
+    void timesOut() throws InterruptedException {
+        long start = System.nanoTime();
+        assertThat(ReadinessProbe.await(() -> false, Duration.ofMillis(100), null)).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void signalTriggersCheck() throws InterruptedException {
+        var ready = new AtomicBoolean();
+        var signal = new CompletableFuture<Void>();
+        CompletableFuture.runAsync(() -> {
+            ready.set(true);
+            signal.complete(null);
+        }, CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+        long start = System.nanoTime();
+        assertThat(ReadinessProbe.await(ready::get, Duration.ofSeconds(5), signal)).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.ServerExtraction.Distribution;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServerExtractionTest {
+    private static final String COORDINATES = "fish.payara.distributions:payara:zip:6.0";
+
+    @TempDir
+    Path repository;
+    @TempDir
+    Path server;
+
+    @Test
+    void extractsOnceAndReuses() throws IOException {
+        var distribution = new Distribution(COORDINATES,
+                zip("payara6/", "payara6/bin/asadmin", "payara6/glassfish/lib/a.jar"), server);
+        assertThat(ServerExtraction.extract(distribution)).isTrue();
+        assertThat(server.resolve("payara6/glassfish/lib/a.jar")).hasContent("payara6/glassfish/lib/a.jar");
+        assertThat(server.resolve("payara6/bin/asadmin")).isExecutable();
+        assertThat(ServerExtraction.extract(distribution)).isFalse();
+    }
+
+    @Test
+    void extractsAgainWhenDamagedOrChanged() throws IOException {
+        var distribution = new Distribution(COORDINATES, zip("payara6/bin/asadmin", "payara6/lib/a.jar"), server);
+        ServerExtraction.extract(distribution);
+        Files.delete(server.resolve("payara6/lib/a.jar"));
+        assertThat(ServerExtraction.extract(distribution)).isTrue();
+        assertThat(server.resolve("payara6/lib/a.jar")).exists();
+
+        zip("payara6/bin/asadmin", "payara6/lib/b.jar", "payara6/lib/c.jar");
+        assertThat(ServerExtraction.extract(distribution)).isTrue();
+        assertThat(server.resolve("payara6/lib/b.jar")).exists();
+        assertThat(ServerExtraction.extract(new Distribution("other:coordinates:zip:1", distribution.archive(), server)))
+                .isTrue();
+    }
+
+    @Test
+    void distributionsShareOutputDirectory() throws IOException {
+        var payara = new Distribution(COORDINATES, zip("payara6/bin/asadmin"), server);
+        Path tools = Files.copy(zip("tools/lib/a.jar"), repository.resolve("tools.zip"));
+        var other = new Distribution("com.example:tools:zip:1.0", tools, server);
+        assertThat(ServerExtraction.extract(payara)).isTrue();
+        assertThat(ServerExtraction.extract(other)).isTrue();
+        assertThat(ServerExtraction.extract(payara)).isFalse();
+        assertThat(ServerExtraction.extract(other)).isFalse();
+        assertThat(ServerExtraction.markerFile(payara).getFileName())
+                .hasToString(ServerExtraction.MARKER + "-fish.payara.distributions_payara_zip");
+    }
+
+    @Test
+    void rejectsEntriesOutsideOfOutputDirectory() throws IOException {
+        Path archive = zip("../outside");
+        assertThatThrownBy(() -> ServerExtraction.unzip(archive, server)).isInstanceOf(IOException.class);
+        assertThat(server.resolveSibling("outside")).doesNotExist();
+    }
+
+    @Test
+    void executables() {
+        assertThat(ServerExtraction.isExecutable("payara6/glassfish/bin/asadmin")).isTrue();
+        assertThat(ServerExtraction.isExecutable("payara6/glassfish/bin/asadmin.bat")).isFalse();
+        assertThat(ServerExtraction.isExecutable("payara6/mq/lib/setup.sh")).isTrue();
+        assertThat(ServerExtraction.isExecutable("payara6/glassfish/lib/a.jar")).isFalse();
+    }
+
+    private Path zip(String... entries) throws IOException {
+        Path archive = repository.resolve("payara.zip");
+        try (var zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (String entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry));
+                if (!entry.endsWith("/")) {
+                    zip.write(entry.getBytes(StandardCharsets.UTF_8));
+                }
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.Deployer.ServerLocations;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServerLocationsCacheTest {
+    @TempDir
+    Path stateDir;
+    private final CommonDevMojo mojo = mock(CommonDevMojo.class);
+
+    @BeforeEach
+    void setup() {
+        mojo.project = new MavenProject();
+        mojo.project.setFile(stateDir.resolve("pom.xml").toFile());
+        mojo.serverAminURL = "http://localhost:4848";
+        when(mojo.getStateDir()).thenReturn(stateDir);
+        when(mojo.getLog()).thenReturn(mock(Log.class));
+    }
+
+    @Test
+    void cachesInMemory() {
+        var cache = new ServerLocationsCache(mojo);
+        assertThat(cache.get()).isNull();
+        var locations = locations(Long.MAX_VALUE);
+        cache.put(locations);
+        assertThat(cache.get()).isEqualTo(locations);
+        cache.invalidate();
+        assertThat(cache.get()).isNull();
+    }
+
+    @Test
+    void persistedWhileServerIsAlive() {
+        var locations = locations(ProcessHandle.current().pid());
+        new ServerLocationsCache(mojo).put(locations);
+        assertThat(new ServerLocationsCache(mojo).get()).isEqualTo(locations);
+
+        mojo.serverAminURL = "http://otherhost:4848";
+        assertThat(new ServerLocationsCache(mojo).get()).isNull();
+    }
+
+    @Test
+    void persistedIgnoredWhenServerIsGone() {
+        new ServerLocationsCache(mojo).put(locations(Long.MAX_VALUE));
+        assertThat(new ServerLocationsCache(mojo).get()).isNull();
+    }
+
+    @Test
+    void persistedIgnoredForRemoteServer() {
+        mojo.serverAminURL = "http://payara.example.com:4848";
+        var locations = locations(ProcessHandle.current().pid());
+        new ServerLocationsCache(mojo).put(locations);
+        assertThat(new ServerLocationsCache(mojo).get()).isNull();
+    }
+
+    @Test
+    void persistedIgnoredWhenPidIsReused() throws IOException {
+        var entry = new ServerLocationsCache.Entry(mojo.serverAminURL, 0, locations(ProcessHandle.current().pid()));
+        Files.writeString(stateDir.resolve("server-locations.json"), Deployer.JSONB.toJson(entry));
+        assertThat(new ServerLocationsCache(mojo).get()).isNull();
+    }
+
+    @Test
+    void loopbackAdminURLs() {
+        assertThat(ServerLocationsCache.isLoopback("http://localhost:4848")).isTrue();
+        assertThat(ServerLocationsCache.isLoopback("https://127.0.0.1:4848")).isTrue();
+        assertThat(ServerLocationsCache.isLoopback("http://[::1]:4848")).isTrue();
+        assertThat(ServerLocationsCache.isLoopback("http://10.0.0.1:4848")).isFalse();
+        assertThat(ServerLocationsCache.isLoopback("http://payara:4848")).isFalse();
+    }
+
+    private static ServerLocations locations(long pid) {
+        return new ServerLocations("", "__locations AdminCommand", "SUCCESS",
+                new ServerLocations.Properties("false", "/payara/domains/domain1", "/payara", "1000",
+                        "/payara/domains", String.valueOf(pid), "/payara/domains/domain1/config"));
+    }
+}
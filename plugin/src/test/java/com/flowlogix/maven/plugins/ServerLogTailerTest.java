@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.flowlogix.maven.plugins;
+
+import com.flowlogix.maven.plugins.Deployer.ServerLocations;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerLogTailerTest {
+    @TempDir
+    Path instanceRoot;
+
+    @Test
+    void completesOnAppendedLine() throws IOException, ExecutionException, InterruptedException, TimeoutException {
+        Path log = createLog("Loading application [app] done\n");
+        try (var tailer = ServerLogTailer.follow(locations())) {
+            assertThat(tailer).isNotNull();
+            var loaded = tailer.await(ServerLogTailer.deploymentComplete("app"));
+            var started = tailer.await(ServerLogTailer.STARTUP_COMPLETE);
+            append(log, "some line\n[2026] Loading application ");
+            append(log, "[app] done in 12 ms\n");
+            assertThat(loaded.get(5, TimeUnit.SECONDS)).contains("12 ms");
+            assertThat(started).isNotDone();
+        }
+    }
+
+    @Test
+    void followsRotatedLog() throws IOException, ExecutionException, InterruptedException, TimeoutException {
+        Path log = createLog("a long line written before the log was rotated\n");
+        try (var tailer = ServerLogTailer.follow(locations())) {
+            var started = tailer.await(ServerLogTailer.STARTUP_COMPLETE);
+            Files.writeString(log, "startup time : 5 ms\n");
+            assertThat(started.get(5, TimeUnit.SECONDS)).startsWith("startup time");
+        }
+    }
+
+    @Test
+    void followsReplacedLog() throws IOException, ExecutionException, InterruptedException, TimeoutException {
+        Path log = createLog("short\n");
+        try (var tailer = ServerLogTailer.follow(locations())) {
+            var started = tailer.await(ServerLogTailer.STARTUP_COMPLETE);
+            Files.move(log, log.resolveSibling("server.log_1"));
+            createLog("a line longer than the previous log\nstartup time : 5 ms\n");
+            assertThat(started.get(5, TimeUnit.SECONDS)).startsWith("startup time");
+        }
+    }
+
+    @Test
+    void reportsWarningsOfDeployCycle() throws IOException {
+        Path log = createLog("[2026-10-17T10:00:00.000+0000] [Payara 6] [SEVERE] [] [logger] [[\n  Before cycle]]\n");
+        List<ServerLogTailer.LogRecord> records = new ArrayList<>();
+        try (var tailer = ServerLogTailer.follow(locations())) {
+            append(log, "[2026-10-17T10:00:01.000+0000] [Payara 6] [SEVERE] [] [logger] [[\n  Also before]]\n");
+            tailer.startCycle(records::add);
+            append(log, """
+                    [2026-10-17T10:00:02.000+0000] [Payara 6] [INFO] [] [logger] [[
+                      Loading application [app] done in 12 ms]]
+                    [2026-10-17T10:00:03.000+0000] [Payara 6] [SEVERE] [] [logger] [tid: 1] [[
+                      Exception while loading the app
+                    java.lang.IllegalStateException: broken
+                    \tat com.example.Bean.init(Bean.java:10)]]
+                    [#|2026-10-17T10:00:04.000+0000|WARNING|Payara 6|logger|_ThreadID=1;|Deprecated API|#]
+                    """);
+            tailer.drain();
+        }
+        assertThat(records).extracting(ServerLogTailer.LogRecord::level).containsExactly("SEVERE", "WARNING");
+        assertThat(records.get(0).isSevere()).isTrue();
+        assertThat(records.get(0).message()).startsWith("Exception while loading the app")
+                .contains("IllegalStateException: broken").endsWith("Bean.java:10)");
+        assertThat(records.get(1).message()).isEqualTo("Deprecated API");
+    }
+
+    @Test
+    void noLog() {
+        assertThat(ServerLogTailer.follow(locations())).isNull();
+        assertThat(ServerLogTailer.follow(null)).isNull();
+    }
+
+    private Path createLog(String content) throws IOException {
+        Path log = Files.createDirectories(instanceRoot.resolve("logs")).resolve("server.log");
+        return Files.writeString(log, content);
+    }
+
+    private static void append(Path log, String content) throws IOException {
+        Files.writeString(log, content, StandardOpenOption.APPEND);
+    }
+
+    private ServerLocations locations() {
+        return new ServerLocations(null, "__locations", "SUCCESS", new ServerLocations.Properties(
+                null, instanceRoot.toString(), null, null, null, null, null));
+    }
+}